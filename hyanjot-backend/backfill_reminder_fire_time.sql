@@ -0,0 +1,6 @@
+-- 回填 reminder_item.fire_time（触发时间 = 提醒时间 - 提前分钟数）
+-- 新增数据由后端保存时自动计算，这里只处理旧数据，可以重复执行
+
+UPDATE reminder_item
+SET fire_time = remind_time - INTERVAL COALESCE(advance_minutes, 0) MINUTE
+WHERE fire_time IS NULL;
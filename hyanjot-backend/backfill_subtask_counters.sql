@@ -0,0 +1,6 @@
+-- 回填 todo_item 的子任务计数列 subtasks_done / subtasks_total
+-- 在 migrate_subtasks.sql 之后执行，可以重复执行
+
+UPDATE todo_item t
+SET t.subtasks_total = (SELECT COUNT(*) FROM todo_subtask s WHERE s.todo_id = t.id),
+    t.subtasks_done  = (SELECT COUNT(*) FROM todo_subtask s WHERE s.todo_id = t.id AND s.completed = TRUE);
@@ -0,0 +1,34 @@
+-- 将 todo_item.subtasks 中的 JSON 子任务迁移到 todo_subtask 表（每个子任务一行）
+-- 先启动一次新版本后端让 Hibernate 创建 todo_subtask 和 id_sequence 表，再在 MySQL 8 中执行此 SQL（后端运行中也可以执行）
+-- todo_subtask.id 由 id_sequence 号段分配，没有自增：后端每次取走 (next_val-100, next_val] 这一段并把 next_val 加100
+-- 这里锁住号段行，从下一段的起点开始给迁移的行编号，再把号段推到这些ID之后，不会和后端已取走或将要取走的号重复
+-- 只迁移还没有子任务行的 TODO，可以重复执行
+
+START TRANSACTION;
+
+-- 还没有插入过子任务时号段行不存在，按当前最大ID补一行（与后端启动时的对齐规则一致）
+INSERT IGNORE INTO id_sequence (seq_name, next_val)
+SELECT 'todo_subtask', COALESCE(MAX(id), 0) + 100 FROM todo_subtask;
+
+SELECT next_val - 100 INTO @base FROM id_sequence WHERE seq_name = 'todo_subtask' FOR UPDATE;
+
+INSERT INTO todo_subtask (id, todo_id, position, text, completed, created_at)
+SELECT @base + ROW_NUMBER() OVER (ORDER BY t.id, jt.pos), t.id, jt.pos, jt.text, COALESCE(jt.completed, FALSE), NOW()
+FROM todo_item t
+JOIN JSON_TABLE(t.subtasks, '$[*]' COLUMNS (
+    pos FOR ORDINALITY,
+    text VARCHAR(500) PATH '$.text',
+    completed BOOLEAN PATH '$.completed'
+)) jt
+WHERE t.subtasks IS NOT NULL
+  AND JSON_LENGTH(t.subtasks) > 0
+  AND NOT EXISTS (SELECT 1 FROM todo_subtask s WHERE s.todo_id = t.id);
+
+SET @migrated = ROW_COUNT();
+
+UPDATE id_sequence SET next_val = @base + @migrated + 100 WHERE seq_name = 'todo_subtask';
+
+COMMIT;
+
+-- 确认迁移无误后可以删除旧列
+-- ALTER TABLE todo_item DROP COLUMN subtasks;
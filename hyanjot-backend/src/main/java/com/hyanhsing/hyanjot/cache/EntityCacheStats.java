@@ -0,0 +1,54 @@
+package com.hyanhsing.hyanjot.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate二级缓存各区域的命中/未命中统计（区域配置见ehcache.xml）
+ * 需要开启hibernate.generate_statistics，未开启时计数都是0
+ */
+@Component
+public class EntityCacheStats {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("hits", statistics.getSecondLevelCacheHitCount());
+        result.put("misses", statistics.getSecondLevelCacheMissCount());
+        result.put("queryHits", statistics.getQueryCacheHitCount());
+        result.put("queryMisses", statistics.getQueryCacheMissCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hits", hits);
+            regionStats.put("misses", misses);
+            regionStats.put("puts", region.getPutCount());
+            regionStats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            regionStats.put("entries", region.getElementCountInMemory());
+            regions.put(name, regionStats);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+}
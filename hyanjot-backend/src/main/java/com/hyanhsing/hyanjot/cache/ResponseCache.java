@@ -0,0 +1,189 @@
+package com.hyanhsing.hyanjot.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 已序列化的列表响应缓存：(用户, 接口, 参数) -> JSON字节（及可选的gzip字节）
+ *
+ * 按字节数限制总大小，淘汰策略为Caffeine的W-TinyLFU
+ * 每条缓存记录生成时的用户版本号，读取时版本不一致即视为未命中；
+ * 用户数据变更提交后再主动删除该用户的所有缓存，及时释放内存
+ * 本节点只收到自己的ItemChangedEvent，其他节点的写入靠UserVersionTracker定期查库发现，
+ * 另外每条缓存写入后ttl-seconds过期，作为兜底
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    /**
+     * 每条缓存除字节数组外的估算开销
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    @Value("${hyanjot.response-cache.enabled:true}")
+    @Getter
+    private boolean enabled;
+
+    @Value("${hyanjot.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${hyanjot.response-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    /**
+     * JSON超过这个大小才额外保存gzip版本
+     */
+    @Value("${hyanjot.response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private Cache<Key, Entry> cache;
+
+    /**
+     * 用户 -> 该用户的缓存键，用于按用户失效
+     */
+    private final Map<Long, Set<Key>> userKeys = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    // 被同一个键的新值替换时键仍在缓存中，不能从索引里去掉
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(key);
+                    }
+                })
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 取出与当前版本一致的缓存，没有时返回null
+     */
+    public Entry get(Long userId, String kind, String filter, long version) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(new Key(userId, kind, filter));
+        return entry != null && entry.getVersion() == version ? entry : null;
+    }
+
+    /**
+     * 保存序列化好的JSON，version需是查询之前取到的版本号
+     */
+    public Entry put(Long userId, String kind, String filter, long version, byte[] json) {
+        Entry entry = new Entry(version, json, json.length >= gzipMinBytes ? gzip(json) : null);
+        if (enabled) {
+            Key key = new Key(userId, kind, filter);
+            userKeys.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(key);
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getUserId() != null) {
+            invalidateUser(event.getUserId());
+        }
+    }
+
+    public void invalidateUser(Long userId) {
+        Set<Key> keys = userKeys.remove(userId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * 命中率、淘汰次数、内存占用
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", cache.estimatedSize());
+        result.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("maxBytes", maxBytes);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        return result;
+    }
+
+    /**
+     * 命中、未命中、淘汰次数和条目数导出为cache.*指标（cache=response）
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "response");
+    }
+
+    private void unindex(Key key) {
+        Set<Key> keys = userKeys.get(key.getUserId());
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Key {
+        private Long userId;
+        private String kind;
+        private String filter;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final long version;
+        private final byte[] json;
+        /**
+         * 太小的响应不压缩，为null
+         */
+        private final byte[] gzip;
+
+        int weight() {
+            return ENTRY_OVERHEAD + json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
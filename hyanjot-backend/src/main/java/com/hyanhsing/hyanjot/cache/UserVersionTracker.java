@@ -0,0 +1,115 @@
+package com.hyanhsing.hyanjot.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hyanhsing.hyanjot.datasource.RoutingContext;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每个用户的备忘项版本号，任何备忘项变更提交后+1，用来生成ETag
+ *
+ * 版本号只保存在本节点内存中，ETag里带上节点纪元，重启或换节点后旧ETag不会误命中
+ * 本节点的写入通过ItemChangedEvent立即+1；其他节点的写入（多节点的提醒触发、硬件网关、批量导入等）收不到事件，
+ * 所以每隔db-check-ms到主库查一次用户的 (条数, 最近修改时间)，有变化也+1
+ * 其他节点写入后，本节点最多db-check-ms内仍返回旧列表或304；设为0时不检查，只适合单节点部署
+ */
+@Component
+public class UserVersionTracker {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    /**
+     * 多久到主库确认一次用户数据有没有被其他节点改过
+     */
+    @Value("${hyanjot.response-cache.db-check-ms:1000}")
+    private long dbCheckMs;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 用户 -> 上次从主库查到的数据指纹
+     */
+    private final Cache<Long, Fingerprint> fingerprints = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    /**
+     * 备忘项ID -> 所属用户，单条查询接口据此不查库就能算出ETag（备忘项不会换用户）
+     */
+    private final Cache<Long, Long> itemOwners = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    /**
+     * 事务提交后才+1：先+1再提交的话，期间读到旧数据的请求会带上新版本号，之后一直被304
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getUserId() != null) {
+            versions.merge(event.getUserId(), 1L, Long::sum);
+        }
+    }
+
+    public long version(Long userId) {
+        if (dbCheckMs > 0) {
+            checkDatabase(userId);
+        }
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * 强ETag，需要在查询之前取，保证返回的数据不会比ETag旧
+     */
+    public String etag(Long userId) {
+        return "\"" + userId + "-" + epoch + "-" + version(userId) + "\"";
+    }
+
+    public Long ownerOf(Long itemId) {
+        return itemOwners.getIfPresent(itemId);
+    }
+
+    public void rememberOwner(Long itemId, Long userId) {
+        if (itemId != null && userId != null) {
+            itemOwners.put(itemId, userId);
+        }
+    }
+
+    /**
+     * 距上次检查超过db-check-ms时查主库，指纹变了（或之前没记录过，可能已被淘汰）就+1
+     */
+    private void checkDatabase(Long userId) {
+        long now = System.currentTimeMillis();
+        Fingerprint last = fingerprints.getIfPresent(userId);
+        if (last != null && now - last.getCheckedAt() < dbCheckMs) {
+            return;
+        }
+        List<Object[]> rows = RoutingContext.callOnPrimary(() -> itemRepository.findChangeFingerprint(userId));
+        Object[] row = rows.get(0);
+        String value = row[0] + "/" + row[1];
+        fingerprints.put(userId, new Fingerprint(value, now));
+        if (last == null || !last.getValue().equals(value)) {
+            versions.merge(userId, 1L, Long::sum);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Fingerprint {
+        private final String value;
+        private final long checkedAt;
+    }
+}
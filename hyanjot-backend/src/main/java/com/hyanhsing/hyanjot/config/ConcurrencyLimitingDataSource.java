@@ -0,0 +1,114 @@
+package com.hyanhsing.hyanjot.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 限制同时持有数据库连接的线程数
+ *
+ * 虚拟线程模式下请求数不再受Tomcat线程池限制，几千个请求会同时去连接池取连接：
+ * Hikari和MySQL驱动内部有synchronized代码块，虚拟线程在里面等待会占住载体线程，
+ * 等待者多了载体线程被占满，连不需要数据库的请求也会卡住
+ * 在取连接之前先拿许可（许可数 = 连接池大小），多出来的线程在信号量上挂起，不占载体线程；
+ * 等待超时直接失败，不会排在连接池后面一直等到超时
+ * 连接关闭（归还连接池）时释放许可
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMs;
+
+    public ConcurrencyLimitingDataSource(DataSource target, int maxConcurrency, long acquireTimeoutMs) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前可用的许可数
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 正在等待许可的线程数（估计值）
+     */
+    public int waitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("数据库繁忙，等待连接超过" + acquireTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待数据库连接时被中断", e);
+        }
+    }
+
+    /**
+     * 代理连接的close()，第一次关闭时释放许可，重复关闭不会多释放
+     */
+    private Connection wrap(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                try {
+                    return invoke(connection, method, args);
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            }
+            return invoke(connection, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
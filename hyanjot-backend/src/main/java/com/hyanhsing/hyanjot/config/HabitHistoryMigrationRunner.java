@@ -0,0 +1,35 @@
+package com.hyanhsing.hyanjot.config;
+
+import com.hyanhsing.hyanjot.service.HabitService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 启动时把habit_item.check_history（JSON日期列表）迁移到habit_check_year位图
+ * 默认关闭，迁移时设置 hyanjot.habit.migrate-check-history=true 启动一次即可
+ * 每个习惯单独一个事务，迁移完成的习惯check_history被置空，中断后重新启动会从剩下的继续
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hyanjot.habit.migrate-check-history", havingValue = "true")
+public class HabitHistoryMigrationRunner implements ApplicationRunner {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids = habitService.findIdsWithCheckHistory();
+        int days = 0;
+        for (Long id : ids) {
+            days += habitService.migrateCheckHistory(id);
+        }
+        log.info("打卡历史迁移完成: {}个习惯, {}天", ids.size(), days);
+    }
+}
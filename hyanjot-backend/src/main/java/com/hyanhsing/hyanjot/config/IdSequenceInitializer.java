@@ -0,0 +1,66 @@
+package com.hyanhsing.hyanjot.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 启动时把id_sequence表的号段对齐到各表当前最大ID之后
+ *
+ * item / todo_subtask / item_tombstone 原来是自增主键，改为号段分配后，
+ * 已有数据库里id_sequence还没有对应的行，Hibernate会从1开始发号，和旧数据冲突
+ * 这里保证每个号段的下一个上限 >= 最大ID + 号段大小 + 1（号段分配取 (上限-号段大小, 上限] 这一段）
+ * 只会把号段往前推，可以重复执行
+ *
+ * 在Hibernate建表之后、Web服务器启动之前执行：对齐前任何一次插入都会从旧号段取走一整段，之后无法纠正
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    /**
+     * 与实体上@TableGenerator的allocationSize一致
+     */
+    static final int ALLOCATION_SIZE = 100;
+
+    /**
+     * 号段名（即表名）
+     */
+    private static final List<String> SEQUENCES = List.of("item", "todo_subtask", "item_tombstone");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignAll() {
+        for (String table : SEQUENCES) {
+            align(table);
+        }
+    }
+
+    private void align(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        long next = maxId + ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update(
+                "UPDATE id_sequence SET next_val = ? WHERE seq_name = ? AND next_val < ?", next, table, next);
+        if (updated > 0) {
+            log.info("号段{}已对齐到{}", table, next);
+            return;
+        }
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM id_sequence WHERE seq_name = ?", Integer.class, table);
+        if (exists != null && exists == 0) {
+            jdbcTemplate.update("INSERT INTO id_sequence (seq_name, next_val) VALUES (?, ?)", table, next);
+            log.info("号段{}已初始化为{}", table, next);
+        }
+    }
+}
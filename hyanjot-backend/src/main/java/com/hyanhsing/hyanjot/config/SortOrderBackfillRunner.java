@@ -0,0 +1,44 @@
+package com.hyanhsing.hyanjot.config;
+
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.service.impl.SortOrderAllocator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 启动时给排序值为NULL的旧备忘项补齐排序值
+ *
+ * 游标分页按 (sortOrder, id) 做范围比较，NULL不满足任何比较条件，这些行不会出现在任何一页上
+ * 对有NULL的用户整体重排一次（NULL排在最前，与列表接口的顺序一致），每个用户一个事务
+ * 没有NULL时只有一次查询，可以重复执行
+ */
+@Slf4j
+@Component
+public class SortOrderBackfillRunner implements ApplicationRunner {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SortOrderAllocator sortOrderAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> userIds = itemRepository.findUserIdsWithNullSortOrder();
+        for (Long userId : userIds) {
+            transactionTemplate.executeWithoutResult(status -> sortOrderAllocator.rebalance(userId));
+        }
+        if (!userIds.isEmpty()) {
+            log.info("已补齐{}个用户的排序值", userIds.size());
+        }
+    }
+}
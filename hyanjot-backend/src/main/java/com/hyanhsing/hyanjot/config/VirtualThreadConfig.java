@@ -0,0 +1,42 @@
+package com.hyanhsing.hyanjot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 虚拟线程模式（spring.threads.virtual.enabled=true，需要JDK 21）
+ *
+ * Spring Boot负责让Tomcat请求、@Scheduled任务和应用任务执行器运行在虚拟线程上，
+ * 这里额外在连接池前面加一道并发限制（见ConcurrencyLimitingDataSource），
+ * 同时访问数据库的线程数不超过连接池大小
+ * JDK 17上Spring Boot会忽略这个开关，仍使用平台线程，并发限制照常生效
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int maxConcurrency = environment.getProperty("hyanjot.db.max-concurrency", Integer.class, 0);
+                if (maxConcurrency <= 0) {
+                    maxConcurrency = hikari.getMaximumPoolSize();
+                }
+                long acquireTimeoutMs = environment.getProperty("hyanjot.db.acquire-timeout-ms", Long.class, 5000L);
+                log.info("数据库并发限制: {}（等待超时{}ms）", maxConcurrency, acquireTimeoutMs);
+                return new ConcurrencyLimitingDataSource(hikari, maxConcurrency, acquireTimeoutMs);
+            }
+        };
+    }
+}
@@ -1,17 +1,41 @@
 package com.hyanhsing.hyanjot.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyanhsing.hyanjot.cache.EntityCacheStats;
+import com.hyanhsing.hyanjot.cache.ResponseCache;
+import com.hyanhsing.hyanjot.cache.UserVersionTracker;
+import com.hyanhsing.hyanjot.dto.CursorPage;
+import com.hyanhsing.hyanjot.dto.HabitStats;
+import com.hyanhsing.hyanjot.dto.ItemChanges;
 import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.HabitCheckYear;
+import com.hyanhsing.hyanjot.entity.HabitItem;
 import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ReminderItem;
 import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.metrics.TimedJacksonHttpMessageConverter;
+import com.hyanhsing.hyanjot.search.ItemSearchIndex;
+import com.hyanhsing.hyanjot.service.BulkWriteException;
+import com.hyanhsing.hyanjot.service.HabitService;
 import com.hyanhsing.hyanjot.service.ItemService;
 import com.hyanhsing.hyanjot.service.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/item")
@@ -23,6 +47,27 @@ public class ItemController {
     @Autowired
     private TodoService todoService;
 
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private UserVersionTracker versionTracker;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * 创建备忘项
      */
@@ -36,71 +81,207 @@ public class ItemController {
      * 获取用户的所有备忘项
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Item>> getItemsByUserId(@PathVariable Long userId) {
-        List<Item> items = itemService.findByUserId(userId);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<byte[]> getItemsByUserId(@PathVariable Long userId, WebRequest request) {
+        return cachedJson(request, userId, "all", "", () -> itemService.findByUserId(userId));
     }
 
     /**
      * 根据类型获取备忘项
      */
     @GetMapping("/user/{userId}/type/{type}")
-    public ResponseEntity<List<Item>> getItemsByType(
+    public ResponseEntity<byte[]> getItemsByType(
             @PathVariable Long userId,
-            @PathVariable String type) {
-        List<Item> items = itemService.findByUserIdAndType(userId, type);
-        return ResponseEntity.ok(items);
+            @PathVariable String type,
+            WebRequest request) {
+        return cachedJson(request, userId, "type", type, () -> itemService.findByUserIdAndType(userId, type));
     }
 
     /**
      * 根据状态获取备忘项
      */
     @GetMapping("/user/{userId}/status/{status}")
-    public ResponseEntity<List<Item>> getItemsByStatus(
+    public ResponseEntity<byte[]> getItemsByStatus(
+            @PathVariable Long userId,
+            @PathVariable String status,
+            WebRequest request) {
+        return cachedJson(request, userId, "status", status, () -> itemService.findByUserIdAndStatus(userId, status));
+    }
+
+    // ==================== 游标分页 ====================
+    // 首页不传cursor，之后把上一页返回的nextCursor原样传回；size不传使用默认值
+
+    /**
+     * 游标分页获取用户的备忘项
+     */
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<byte[]> getItemPageByUserId(
             @PathVariable Long userId,
-            @PathVariable String status) {
-        List<Item> items = itemService.findByUserIdAndStatus(userId, status);
-        return ResponseEntity.ok(items);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return cachedJson(request, userId, "page", cursor + ":" + size,
+                () -> itemService.findPageByUserId(userId, cursor, size));
+    }
+
+    /**
+     * 游标分页根据类型获取备忘项
+     */
+    @GetMapping("/user/{userId}/type/{type}/page")
+    public ResponseEntity<byte[]> getItemPageByType(
+            @PathVariable Long userId,
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return cachedJson(request, userId, "typePage", type + ":" + cursor + ":" + size,
+                () -> itemService.findPageByUserIdAndType(userId, type, cursor, size));
+    }
+
+    /**
+     * 游标分页根据状态获取备忘项
+     */
+    @GetMapping("/user/{userId}/status/{status}/page")
+    public ResponseEntity<byte[]> getItemPageByStatus(
+            @PathVariable Long userId,
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return cachedJson(request, userId, "statusPage", status + ":" + cursor + ":" + size,
+                () -> itemService.findPageByUserIdAndStatus(userId, status, cursor, size));
+    }
+
+    /**
+     * 游标无效时返回400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    /**
+     * 批量写入中途失败：数据有误返回400，其他错误500，都带上已提交的条数
+     */
+    @ExceptionHandler(BulkWriteException.class)
+    public ResponseEntity<Map<String, Object>> handleBulkWrite(BulkWriteException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        response.put("committed", e.getCommitted());
+        return ResponseEntity.status(e.isInvalidRequest() ? 400 : 500).body(response);
     }
 
     /**
      * 根据ID获取备忘项（包含子表数据）
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getItemById(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getItemById(@PathVariable Long id, WebRequest request) {
+        // 所属用户已知时（之前查过）可以直接比对ETag；第一次查询不带ETag，只记下所属用户
+        Long owner = versionTracker.ownerOf(id);
+        if (owner != null) {
+            String etag = versionTracker.etag(owner);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return itemService.findByIdWithDetails(id)
+                    .map(item -> ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(toDetailMap(item)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
         return itemService.findByIdWithDetails(id)
                 .map(item -> {
-                    Map<String, Object> result = new HashMap<>();
-                    // 基础Item字段
-                    result.put("id", item.getId());
-                    result.put("userId", item.getUserId());
-                    result.put("type", item.getType());
-                    result.put("title", item.getTitle());
-                    result.put("content", item.getContent());
-                    result.put("status", item.getStatus());
-                    result.put("sortOrder", item.getSortOrder());
-                    result.put("createdAt", item.getCreatedAt());
-                    result.put("updatedAt", item.getUpdatedAt());
-                    
-                    // 根据类型添加子表数据
-                    if ("TODO".equals(item.getType()) && item.getTodoItem() != null) {
-                        Map<String, Object> todoData = new HashMap<>();
-                        TodoItem todoItem = item.getTodoItem();
-                        todoData.put("deadline", todoItem.getDeadline());
-                        todoData.put("priority", todoItem.getPriority());
-                        todoData.put("progressMode", todoItem.getProgressMode());
-                        todoData.put("progressCurrent", todoItem.getProgressCurrent());
-                        todoData.put("progressTotal", todoItem.getProgressTotal());
-                        todoData.put("subtasks", todoItem.getSubtasks());
-                        result.put("todoItem", todoData);
-                    }
-                    // TODO: 添加HABIT和REMINDER的处理
-                    
-                    return ResponseEntity.ok(result);
+                    versionTracker.rememberOwner(item.getId(), item.getUserId());
+                    return ResponseEntity.ok(toDetailMap(item));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 批量获取备忘项（包含子表数据），例如 /details?ids=1,2,3
+     * subtasks=false时只返回子任务计数（subtasksDone/subtasksTotal），不加载子任务列表
+     */
+    @GetMapping("/details")
+    public ResponseEntity<List<Map<String, Object>>> getItemsByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "true") boolean subtasks) {
+        List<Map<String, Object>> result = itemService.findByIdsWithDetails(ids, subtasks).stream()
+                .map(this::toDetailMap)
+                .toList();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 游标分页获取用户的备忘项（包含子表数据）
+     */
+    @GetMapping("/user/{userId}/details")
+    public ResponseEntity<byte[]> getItemDetailPageByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean subtasks,
+            WebRequest request) {
+        return cachedJson(request, userId, "details", cursor + ":" + size + ":" + subtasks, () -> {
+            CursorPage<Item> page = itemService.findPageByUserIdWithDetails(userId, cursor, size, subtasks);
+            List<Map<String, Object>> items = page.getItems().stream()
+                    .map(this::toDetailMap)
+                    .toList();
+            return new CursorPage<>(items, page.getNextCursor(), page.isHasMore());
+        });
+    }
+
+    /**
+     * 增量同步：返回水位since之后新增/修改的备忘项（items）和删除的备忘项（deleted）
+     * 首次不传since即全量；之后每次传回上次的nextToken；hasMore为true时立即再取一次
+     * reset为true表示水位太旧，需要丢弃本地数据重新全量同步
+     */
+    @GetMapping("/user/{userId}/changes")
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean subtasks) {
+        ItemChanges changes = itemService.findChanges(userId, since, size, subtasks);
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", changes.getItems().stream().map(this::toDetailMap).toList());
+        response.put("deleted", changes.getDeleted());
+        response.put("nextToken", changes.getNextToken());
+        response.put("hasMore", changes.isHasMore());
+        response.put("reset", changes.isReset());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 全文搜索标题、内容和子任务
+     * complete=false 表示启动后的索引重建还没完成，结果可能不全
+     */
+    @GetMapping("/user/{userId}/search")
+    public ResponseEntity<Map<String, Object>> search(@PathVariable Long userId,
+                                                      @RequestParam String q,
+                                                      @RequestParam(required = false) Integer size) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", itemService.search(userId, q, size).stream().map(this::toDetailMap).toList());
+        response.put("complete", searchIndex.isReady());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 列表响应缓存的命中率和内存占用
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getResponseCacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+
+    /**
+     * Hibernate二级缓存各区域的命中率
+     */
+    @GetMapping("/cache/entity-stats")
+    public ResponseEntity<Map<String, Object>> getEntityCacheStats() {
+        return ResponseEntity.ok(entityCacheStats.stats());
+    }
+
     /**
      * 更新备忘项
      */
@@ -138,6 +319,52 @@ public class ItemController {
         }
     }
 
+    /**
+     * 拖动排序：移到after和before两个备忘项之间
+     * 只传after表示放在它后面（移到最后时after为原来的最后一项），只传before表示放在它前面
+     */
+    @PutMapping("/{id}/move")
+    public ResponseEntity<Item> moveItem(@PathVariable Long id,
+                                         @RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Long before) {
+        return ResponseEntity.ok(itemService.moveItem(id, after, before));
+    }
+
+    /**
+     * 批量创建备忘项（导入用），返回新ID，顺序与请求一致
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> createItems(@RequestBody List<Item> items) {
+        List<Long> ids = itemService.createItems(items);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", ids.size());
+        response.put("ids", ids);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量更新备忘项（只更新请求中非空的字段）
+     */
+    @PutMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> updateItems(@RequestBody List<Item> items) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", itemService.updateItems(items));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量删除备忘项，请求体为ID数组
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<Map<String, Object>> deleteItems(@RequestBody List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", itemService.deleteItems(ids));
+        return ResponseEntity.ok(response);
+    }
+
     // ==================== TODO专用API ====================
 
     /**
@@ -154,6 +381,19 @@ public class ItemController {
         }
     }
 
+    /**
+     * 批量创建TODO（导入用），返回新ID，顺序与请求一致
+     */
+    @PostMapping("/todo/bulk")
+    public ResponseEntity<Map<String, Object>> createTodos(@RequestBody List<TodoCreateDTO> dtos) {
+        List<Long> ids = todoService.createTodos(dtos);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", ids.size());
+        response.put("ids", ids);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 更新TODO类型的备忘项
      */
@@ -232,6 +472,8 @@ public class ItemController {
             result.put("progressCurrent", updated.getProgressCurrent());
             result.put("progressTotal", updated.getProgressTotal());
             result.put("subtasks", updated.getSubtasks());
+            result.put("subtasksDone", updated.getSubtasksDone());
+            result.put("subtasksTotal", updated.getSubtasksTotal());
             
             return ResponseEntity.ok(result);
         } catch (RuntimeException e) {
@@ -266,4 +508,198 @@ public class ItemController {
         TodoItem updated = todoService.deleteSubtask(id, index);
         return ResponseEntity.ok(updated);
     }
+
+    // ==================== 按子任务ID操作 ====================
+    // 子任务ID稳定不变，多端同时编辑时不会因为下标变化而改错子任务
+
+    /**
+     * 获取TODO及其子任务
+     */
+    @GetMapping("/{id}/subtasks")
+    public ResponseEntity<TodoItem> getSubtasks(@PathVariable Long id) {
+        return ResponseEntity.ok(todoService.getTodoWithSubtasks(id));
+    }
+
+    /**
+     * 按ID切换子任务完成状态
+     */
+    @PutMapping("/{id}/subtasks/{subtaskId}/toggle")
+    public ResponseEntity<TodoItem> toggleSubtaskById(
+            @PathVariable Long id,
+            @PathVariable Long subtaskId) {
+        TodoItem updated = todoService.toggleSubtaskById(id, subtaskId);
+        return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * 按ID更新子任务文本
+     */
+    @PutMapping("/{id}/subtasks/{subtaskId}")
+    public ResponseEntity<TodoItem> updateSubtaskById(
+            @PathVariable Long id,
+            @PathVariable Long subtaskId,
+            @RequestBody Map<String, String> data) {
+        TodoItem updated = todoService.updateSubtaskById(id, subtaskId, data.get("text"));
+        return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * 按ID删除子任务
+     */
+    @DeleteMapping("/{id}/subtasks/{subtaskId}")
+    public ResponseEntity<TodoItem> deleteSubtaskById(
+            @PathVariable Long id,
+            @PathVariable Long subtaskId) {
+        TodoItem updated = todoService.deleteSubtaskById(id, subtaskId);
+        return ResponseEntity.ok(updated);
+    }
+
+    // ==================== HABIT专用API ====================
+
+    /**
+     * 打卡（date为空时打今天的卡）
+     */
+    @PutMapping("/{id}/habit/check")
+    public ResponseEntity<HabitStats> checkIn(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(habitService.checkIn(id, date));
+    }
+
+    /**
+     * 取消打卡
+     */
+    @DeleteMapping("/{id}/habit/check")
+    public ResponseEntity<HabitStats> undoCheckIn(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(habitService.undoCheckIn(id, date));
+    }
+
+    /**
+     * 获取连续打卡天数、最长连续天数等统计
+     */
+    @GetMapping("/{id}/habit/stats")
+    public ResponseEntity<HabitStats> getHabitStats(@PathVariable Long id) {
+        return ResponseEntity.ok(habitService.getStats(id));
+    }
+
+    /**
+     * 获取一年的打卡热力图
+     * days为46字节位图的Base64，第n天（从0开始）对应 days[n / 8] 的第 n % 8 位
+     */
+    @GetMapping("/{id}/habit/heatmap")
+    public ResponseEntity<Map<String, Object>> getHabitHeatmap(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer year) {
+        int y = year != null ? year : LocalDate.now().getYear();
+        HabitCheckYear checkYear = habitService.getYear(id, y);
+        Map<String, Object> response = new HashMap<>();
+        response.put("habitId", id);
+        response.put("year", y);
+        response.put("days", checkYear.getDays());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 获取一年的打卡位图原始字节（Accept: application/octet-stream，硬件端用）
+     */
+    @GetMapping(value = "/{id}/habit/heatmap", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getHabitHeatmapRaw(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer year) {
+        int y = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(habitService.getYear(id, y).getDays());
+    }
+
+    /**
+     * 用户列表类接口的统一出口：条件GET + 已序列化响应缓存
+     * 1. ETag由用户的备忘项版本号生成，在查询之前取；If-None-Match相同时直接304，不查库也不序列化
+     * 2. 否则先查响应缓存（同一版本下的JSON字节），命中时直接返回字节，客户端支持时返回gzip版本
+     * 3. 都没命中才查询并序列化，结果放入缓存
+     * Cache-Control: no-cache 允许浏览器保存响应，但每次都要带If-None-Match回来确认
+     */
+    private ResponseEntity<byte[]> cachedJson(WebRequest request, Long userId, String kind, String filter,
+                                              Supplier<Object> body) {
+        long version = versionTracker.version(userId);
+        String etag = versionTracker.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseCache.Entry entry = responseCache.get(userId, kind, filter, version);
+        if (entry == null) {
+            Object value = body.get();
+            long start = System.nanoTime();
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("序列化响应失败", e);
+            }
+            TimedJacksonHttpMessageConverter.timer(meterRegistry, "write", "cached-" + kind)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            entry = responseCache.put(userId, kind, filter, version, json);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (entry.getGzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.getGzip());
+        }
+        return response.body(entry.getJson());
+    }
+
+    /**
+     * 构建包含子表数据的返回结构
+     */
+    private Map<String, Object> toDetailMap(Item item) {
+        Map<String, Object> result = new HashMap<>();
+        // 基础Item字段
+        result.put("id", item.getId());
+        result.put("userId", item.getUserId());
+        result.put("type", item.getType());
+        result.put("title", item.getTitle());
+        result.put("content", item.getContent());
+        result.put("status", item.getStatus());
+        result.put("sortOrder", item.getSortOrder());
+        result.put("createdAt", item.getCreatedAt());
+        result.put("updatedAt", item.getUpdatedAt());
+
+        // 根据类型添加子表数据
+        if ("TODO".equals(item.getType()) && item.getTodoItem() != null) {
+            Map<String, Object> todoData = new HashMap<>();
+            TodoItem todoItem = item.getTodoItem();
+            todoData.put("deadline", todoItem.getDeadline());
+            todoData.put("priority", todoItem.getPriority());
+            todoData.put("progressMode", todoItem.getProgressMode());
+            todoData.put("progressCurrent", todoItem.getProgressCurrent());
+            todoData.put("progressTotal", todoItem.getProgressTotal());
+            todoData.put("subtasks", todoItem.getSubtasks());
+            todoData.put("subtasksDone", todoItem.getSubtasksDone());
+            todoData.put("subtasksTotal", todoItem.getSubtasksTotal());
+            result.put("todoItem", todoData);
+        } else if ("HABIT".equals(item.getType()) && item.getHabitItem() != null) {
+            Map<String, Object> habitData = new HashMap<>();
+            HabitItem habitItem = item.getHabitItem();
+            habitData.put("repeatRule", habitItem.getRepeatRule());
+            habitData.put("streakDays", habitItem.getStreakDays());
+            habitData.put("targetDays", habitItem.getTargetDays());
+            habitData.put("lastCheckDate", habitItem.getLastCheckDate());
+            habitData.put("checkHistory", habitItem.getCheckHistory());
+            result.put("habitItem", habitData);
+        } else if ("REMINDER".equals(item.getType()) && item.getReminderItem() != null) {
+            Map<String, Object> reminderData = new HashMap<>();
+            ReminderItem reminderItem = item.getReminderItem();
+            reminderData.put("remindTime", reminderItem.getRemindTime());
+            reminderData.put("repeatType", reminderItem.getRepeatType());
+            reminderData.put("advanceMinutes", reminderItem.getAdvanceMinutes());
+            reminderData.put("notified", reminderItem.getNotified());
+            reminderData.put("nextRemindTime", reminderItem.getNextRemindTime());
+            result.put("reminderItem", reminderData);
+        }
+        return result;
+    }
 }
\ No newline at end of file
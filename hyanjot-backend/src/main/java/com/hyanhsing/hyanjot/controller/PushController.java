@@ -0,0 +1,35 @@
+package com.hyanhsing.hyanjot.controller;
+
+import com.hyanhsing.hyanjot.push.PushHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 变更推送（SSE），替代轮询 /api/item/user/{userId}
+ * 事件：
+ *   hello   首次连接，id为当前位置
+ *   item    备忘项变更 {userId, itemId, itemType, action}
+ *   reminder 提醒到期
+ *   reset   无法补发断线期间的事件，需要全量刷新
+ */
+@RestController
+@RequestMapping("/api/push")
+public class PushController {
+
+    @Autowired
+    private PushHub pushHub;
+
+    /**
+     * 订阅用户的变更
+     * 浏览器EventSource重连时会自动带上Last-Event-ID请求头；硬件端可以用lastEventId参数
+     */
+    @GetMapping(value = "/user/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return pushHub.subscribe(userId, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -0,0 +1,105 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import com.hyanhsing.hyanjot.cache.UserVersionTracker;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离（hyanjot.datasource.routing.enabled=true）
+ *
+ * 应用使用的dataSource是LazyConnectionDataSourceProxy：事务开始时不取连接，
+ * 第一条SQL执行时才按事务是否只读决定取主库连接还是ReadReplicaRouter选出的副本连接
+ * 主库仍按spring.datasource.*配置，副本见hyanjot.datasource.replicas
+ *
+ * 依赖spring.jpa.open-in-view=false：开启时整个请求共用一个连接，请求里先读后写会把写操作发到副本上
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "hyanjot.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public DataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!StringUtils.hasText(dataSource.getPoolName())) {
+            dataSource.setPoolName("primary");
+        }
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRouter readReplicaRouter(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               DataSourceProperties primaryProperties,
+                                               ReadReplicaProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReadReplicaProperties.Replica replica = configured.get(i);
+            if (!StringUtils.hasText(replica.getUrl())) {
+                throw new IllegalArgumentException("第" + (i + 1) + "个只读副本未配置url");
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setDriverClassName(primaryProperties.determineDriverClassName());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(replica.getConnectionTimeoutMs());
+            dataSource.setReadOnly(true);
+            // 副本宕机时不阻塞启动，由健康检查标记为不可用
+            dataSource.setInitializationFailTimeout(-1);
+            // 副本连接池不是Spring Bean，不会被自动绑定连接池指标，这里单独注册（hikaricp.*，pool=replica-N）
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        log.info("读写分离: {}个只读副本, 写后读主库{}ms, 最大延迟{}ms",
+                replicas.size(), properties.getStickyMs(), properties.getMaxLagMs());
+        return new ReadReplicaRouter(primaryDataSource, replicas, properties.getStickyMs(), properties.getMaxLagMs());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReadReplicaRouter readReplicaRouter) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(readReplicaRouter);
+        return proxy;
+    }
+
+    @Bean
+    public WebMvcConfigurer routingUserInterceptorConfigurer(UserVersionTracker versionTracker,
+                                                             ItemRepository itemRepository) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RoutingUserInterceptor(versionTracker, itemRepository)).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（hyanjot.datasource.*）
+ * 主库仍使用spring.datasource，这里只配置只读副本
+ */
+@Data
+@ConfigurationProperties(prefix = "hyanjot.datasource")
+public class ReadReplicaProperties {
+
+    /**
+     * 只读副本，未配置用户名密码时与主库相同
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 用户写入后多久内的读请求仍走主库（读到自己刚写的数据）
+     */
+    private long stickyMs = 5000;
+
+    /**
+     * 副本延迟超过多少毫秒时不再使用，<=0表示不检查延迟（只检查连通性）
+     */
+    private long maxLagMs = 3000;
+
+    /**
+     * 健康检查和心跳间隔
+     */
+    private long healthCheckIntervalMs = 1000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        /**
+         * 取连接的超时，副本宕机时健康检查最多阻塞这么久
+         */
+        private long connectionTimeoutMs = 2000;
+    }
+}
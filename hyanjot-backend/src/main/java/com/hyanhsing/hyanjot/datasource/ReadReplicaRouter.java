@@ -0,0 +1,203 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 只读连接的路由：在健康的副本之间轮询，没有可用副本或需要读自己写入时退回主库
+ *
+ * 由LazyConnectionDataSourceProxy在只读事务（@Transactional(readOnly = true)，
+ * 包括Spring Data仓库默认的只读查询方法）真正需要连接时调用，写事务不会经过这里
+ *
+ * 健康检查：主库定时写心跳时间，从各副本读回来，读不到算不可用，差值超过max-lag-ms算延迟过大
+ * 读自己写入：用户的备忘项变更提交后sticky-ms内，该用户的请求只读主库
+ */
+@Slf4j
+public class ReadReplicaRouter extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final JdbcTemplate primaryJdbc;
+
+    private final Map<String, DataSource> replicas;
+
+    private final Map<String, JdbcTemplate> replicaJdbc = new LinkedHashMap<>();
+
+    private final long maxLagMs;
+
+    /**
+     * 写入后需要读主库的用户，条目在sticky-ms后过期
+     */
+    private final Cache<Long, Boolean> stickyUsers;
+
+    /**
+     * 当前可用的副本
+     */
+    private volatile List<String> healthy = List.of();
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    /**
+     * 各目标被选中的次数（测试和监控用）
+     */
+    private final Map<String, AtomicLong> routed = new ConcurrentHashMap<>();
+
+    public ReadReplicaRouter(DataSource primary, Map<String, DataSource> replicas, long stickyMs, long maxLagMs) {
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.maxLagMs = maxLagMs;
+        this.stickyUsers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .build();
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.setQueryTimeout(2);
+            replicaJdbc.put(name, jdbc);
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        primaryJdbc.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = selectReadTarget();
+        routed.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        return key;
+    }
+
+    /**
+     * 选择只读连接的目标：强制主库、刚写过的用户和没有可用副本时返回主库
+     */
+    String selectReadTarget() {
+        if (RoutingContext.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        Long userId = RoutingContext.currentUser();
+        if (userId != null && stickyUsers.getIfPresent(userId) != null) {
+            return PRIMARY;
+        }
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(roundRobin.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * 变更提交后标记用户，之后一段时间内该用户的读请求走主库
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        markWrite(event.getUserId());
+    }
+
+    public void markWrite(Long userId) {
+        if (userId != null) {
+            stickyUsers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 主库写心跳，然后检查各副本
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.datasource.health-check-interval-ms:1000}")
+    public void heartbeat() {
+        try {
+            primaryJdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)", HEARTBEAT_ID, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("写入副本心跳失败", e);
+        }
+        checkReplicas();
+    }
+
+    /**
+     * 从各副本读回心跳，更新可用副本列表
+     */
+    public void checkReplicas() {
+        List<String> available = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        replicaJdbc.forEach((name, jdbc) -> {
+            try {
+                if (maxLagMs <= 0) {
+                    // 不检查延迟时只要能连上就行，副本上可以没有心跳表（比如两个互不复制的本地实例）
+                    jdbc.execute("SELECT 1");
+                } else {
+                    List<Long> beats = jdbc.queryForList(
+                            "SELECT beat_at FROM replica_heartbeat WHERE id = ?", Long.class, HEARTBEAT_ID);
+                    long lag = beats.isEmpty() ? Long.MAX_VALUE : now - beats.get(0);
+                    if (lag > maxLagMs) {
+                        logChange(name, false, "延迟" + (beats.isEmpty() ? "未知" : lag + "ms"));
+                        return;
+                    }
+                }
+                logChange(name, true, null);
+                available.add(name);
+            } catch (RuntimeException e) {
+                logChange(name, false, e.getMessage());
+            }
+        });
+        healthy = List.copyOf(available);
+    }
+
+    /**
+     * 关闭副本连接池（主库连接池是单独的Bean，不在这里关）
+     */
+    public void close() {
+        replicas.forEach((name, dataSource) -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭副本{}失败", name, e);
+                }
+            }
+        });
+    }
+
+    public List<String> healthyReplicas() {
+        return healthy;
+    }
+
+    public long routedCount(String key) {
+        AtomicLong count = routed.get(key);
+        return count != null ? count.get() : 0;
+    }
+
+    private void logChange(String name, boolean nowHealthy, String reason) {
+        boolean wasHealthy = healthy.contains(name);
+        if (wasHealthy && !nowHealthy) {
+            log.warn("副本{}不可用，只读请求改走主库: {}", name, reason);
+        } else if (!wasHealthy && nowHealthy) {
+            log.info("副本{}已可用", name);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前请求所属的用户，读写分离时据此判断是否需要读主库
+ * 由RoutingUserInterceptor在请求开始时设置，请求结束时清除
+ *
+ * 后台任务读取刚提交的数据时（不属于某个请求、无法按用户判断）用callOnPrimary强制读主库
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public static void setCurrentUser(Long userId) {
+        if (userId == null) {
+            CURRENT_USER.remove();
+        } else {
+            CURRENT_USER.set(userId);
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    /**
+     * 在主库上执行，期间的只读事务也不走副本（未开启读写分离时没有影响）
+     */
+    public static <T> T callOnPrimary(Supplier<T> action) {
+        if (isPrimaryForced()) {
+            return action.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    public static void runOnPrimary(Runnable action) {
+        callOnPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static void clear() {
+        CURRENT_USER.remove();
+        FORCE_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,68 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import com.hyanhsing.hyanjot.cache.UserVersionTracker;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 从请求路径中取出用户ID放进RoutingContext
+ * /user/{userId}/... 直接取；/{id}/... 先按备忘项ID查本节点记录的所属用户，
+ * 没有记录时按主键到主库查一次（副本上可能还没有刚创建的备忘项），查到后记下来
+ */
+public class RoutingUserInterceptor implements HandlerInterceptor {
+
+    private final UserVersionTracker versionTracker;
+
+    private final ItemRepository itemRepository;
+
+    public RoutingUserInterceptor(UserVersionTracker versionTracker, ItemRepository itemRepository) {
+        this.versionTracker = versionTracker;
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return true;
+        }
+        Long userId = parse(variables.get("userId"));
+        if (userId == null) {
+            Long itemId = parse(variables.get("id"));
+            userId = itemId != null ? ownerOf(itemId) : null;
+        }
+        RoutingContext.setCurrentUser(userId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RoutingContext.clear();
+    }
+
+    private Long ownerOf(Long itemId) {
+        Long owner = versionTracker.ownerOf(itemId);
+        if (owner == null) {
+            owner = RoutingContext.callOnPrimary(() -> itemRepository.findUserIdById(itemId)).orElse(null);
+            versionTracker.rememberOwner(itemId, owner);
+        }
+        return owner;
+    }
+
+    private static Long parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
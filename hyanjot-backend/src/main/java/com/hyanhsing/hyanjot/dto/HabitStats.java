@@ -0,0 +1,21 @@
+package com.hyanhsing.hyanjot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * 习惯打卡统计（由位图扫描得出）
+ * streakDays：截至今天的连续打卡天数（今天还没打卡时从昨天往前数）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HabitStats {
+    private Long habitId;
+    private int streakDays;
+    private int longestStreak;
+    private int totalChecks;
+    private LocalDate lastCheckDate;
+}
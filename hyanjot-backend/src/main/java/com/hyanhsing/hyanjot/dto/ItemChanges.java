@@ -0,0 +1,23 @@
+package com.hyanhsing.hyanjot.dto;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ItemTombstone;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * 增量同步结果
+ * hasMore为true时用nextToken立即再取一次；reset为true表示水位太旧（墓碑已清理），客户端需要全量刷新
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemChanges {
+    private List<Item> items;
+    private List<ItemTombstone> deleted;
+    private String nextToken;
+    private boolean hasMore;
+    private boolean reset;
+}
@@ -0,0 +1,50 @@
+package com.hyanhsing.hyanjot.dto;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 备忘项游标：列表按 (sortOrder, id) 排序，游标记录上一页最后一行的这两个值
+ * 对客户端是不透明的字符串（Base64编码），客户端只需原样传回
+ */
+@Data
+@AllArgsConstructor
+public class ItemCursor {
+    /**
+     * 第一页的起点：比任何真实数据都小
+     */
+    public static final ItemCursor START = new ItemCursor(Integer.MIN_VALUE, 0L);
+
+    private Integer sortOrder;
+    private Long id;
+
+    public static ItemCursor of(Item item) {
+        return new ItemCursor(item.getSortOrder() != null ? item.getSortOrder() : 0, item.getId());
+    }
+
+    public String encode() {
+        String raw = sortOrder + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，null或空字符串表示从第一页开始
+     */
+    public static ItemCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new ItemCursor(Integer.parseInt(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("游标无效", e);
+        }
+    }
+}
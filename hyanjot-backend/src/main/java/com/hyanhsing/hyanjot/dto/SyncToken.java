@@ -0,0 +1,48 @@
+package com.hyanhsing.hyanjot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 增量同步水位：备忘项和墓碑各自的 (时间, id) 位置
+ * 对客户端是不透明的字符串（Base64编码），客户端只需原样传回
+ */
+@Data
+@AllArgsConstructor
+public class SyncToken {
+    /**
+     * 首次同步的起点：比任何真实数据都早（MySQL DATETIME不支持LocalDateTime.MIN）
+     */
+    public static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private LocalDateTime itemTime;
+    private Long itemId;
+    private LocalDateTime tombstoneTime;
+    private Long tombstoneId;
+
+    public String encode() {
+        String raw = itemTime + "|" + itemId + "|" + tombstoneTime + "|" + tombstoneId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析水位，null或空字符串表示首次同步（返回null）
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new SyncToken(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]),
+                    LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("同步水位无效", e);
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.hyanhsing.hyanjot.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "device")
 @Table(name = "device")
 public class Device {
     @Id
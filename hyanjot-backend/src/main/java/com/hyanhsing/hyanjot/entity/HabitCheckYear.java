@@ -0,0 +1,61 @@
+package com.hyanhsing.hyanjot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * HABIT一年的打卡记录，按天存成位图
+ * 第 n 天（dayOfYear-1）对应 days[n / 8] 的第 n % 8 位（低位在前，与 BitSet.valueOf 一致）
+ * 366天 = 46字节
+ */
+@Data
+@Entity
+@Table(name = "habit_check_year", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_habit_check_year", columnNames = {"habit_id", "check_year"})
+})
+public class HabitCheckYear {
+    public static final int BYTES = 46;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+
+    @Column(name = "check_year", nullable = false)
+    private Integer checkYear;
+
+    @Column(nullable = false, length = BYTES)
+    private byte[] days = new byte[BYTES];
+
+    public HabitCheckYear() {
+    }
+
+    public HabitCheckYear(Long habitId, int checkYear) {
+        this.habitId = habitId;
+        this.checkYear = checkYear;
+    }
+
+    public boolean isChecked(LocalDate date) {
+        int bit = date.getDayOfYear() - 1;
+        return (days[bit >> 3] & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * 设置某一天的打卡位，返回是否有变化
+     * 重新赋值数组而不是原地修改，保证Hibernate能检测到byte[]变更
+     */
+    public boolean setChecked(LocalDate date, boolean checked) {
+        if (isChecked(date) == checked) {
+            return false;
+        }
+        int bit = date.getDayOfYear() - 1;
+        byte[] copy = days.clone();
+        copy[bit >> 3] ^= (byte) (1 << (bit & 7));
+        days = copy;
+        return true;
+    }
+}
@@ -2,6 +2,8 @@ package com.hyanhsing.hyanjot.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 /**
@@ -9,6 +11,7 @@ import java.time.LocalDate;
  */
 @Data
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "habit-item")
 @Table(name = "habit_item")
 public class HabitItem {
     @Id
@@ -44,7 +47,8 @@ public class HabitItem {
     private LocalDate lastCheckDate;
 
     /**
-     * 打卡历史记录（JSON格式，存储日期列表）
+     * 旧版打卡历史记录（JSON格式，存储日期列表）
+     * 已改为按年位图存储（habit_check_year），此列只作迁移来源，迁移后置空
      */
     @Column(name = "check_history", columnDefinition = "JSON")
     private String checkHistory;
@@ -7,10 +7,21 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "item")
+@Table(name = "item", indexes = {
+        // 游标分页：按 (sort_order, id) 定位，保证第N页与第1页代价相同
+        @Index(name = "idx_item_user_sort", columnList = "user_id, sort_order, id"),
+        @Index(name = "idx_item_user_type_sort", columnList = "user_id, type, sort_order, id"),
+        @Index(name = "idx_item_user_status_sort", columnList = "user_id, status, sort_order, id"),
+        // 增量同步：按 (updated_at, id) 水位查找变化，代价只与变化条数有关
+        @Index(name = "idx_item_user_updated", columnList = "user_id, updated_at, id")
+})
 public class Item {
+    // 号段分配ID：每次从id_sequence表取100个号，插入不需要回读自增ID，可以批量执行
+    // 已有数据库的起始号段由IdSequenceInitializer在启动时对齐到当前最大ID之后
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item")
+    @TableGenerator(name = "item", table = "id_sequence", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "item", allocationSize = 100)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,8 +42,11 @@ public class Item {
     @Column(columnDefinition = "JSON")
     private String config;
 
+    /**
+     * 排序值，相邻备忘项之间留有空隙（见SortOrderAllocator），创建时不指定则追加到末尾
+     */
     @Column(name = "sort_order")
-    private Integer sortOrder = 0;
+    private Integer sortOrder;
 
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -40,24 +54,28 @@ public class Item {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // 子表数据不做JPA映射：@OneToOne(mappedBy)的非拥有端无法延迟加载，
+    // 每加载一个Item都会额外查询三张子表（列表接口出现3N+1条SQL）。
+    // 需要子表数据时由Service按需查询后填充。
+
     /**
      * 关联的TODO类型数据
      */
-    @OneToOne(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Transient
     @JsonIgnore
     private TodoItem todoItem;
 
     /**
      * 关联的习惯类型数据
      */
-    @OneToOne(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Transient
     @JsonIgnore
     private HabitItem habitItem;
 
     /**
      * 关联的提醒类型数据
      */
-    @OneToOne(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Transient
     @JsonIgnore
     private ReminderItem reminderItem;
 
@@ -0,0 +1,36 @@
+package com.hyanhsing.hyanjot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 已删除备忘项的墓碑，供增量同步告诉客户端哪些备忘项被删了
+ * 超过保留期的墓碑会被定时清理，水位早于保留期的客户端需要全量刷新
+ */
+@Data
+@Entity
+@Table(name = "item_tombstone", indexes = {
+        @Index(name = "idx_tombstone_user_deleted", columnList = "user_id, deleted_at, id"),
+        @Index(name = "idx_tombstone_deleted", columnList = "deleted_at")
+})
+public class ItemTombstone {
+    // 号段分配ID（同Item），批量删除时墓碑可以批量插入
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_tombstone")
+    @TableGenerator(name = "item_tombstone", table = "id_sequence", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "item_tombstone", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 20)
+    private String type;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -6,10 +6,15 @@ import java.time.LocalDateTime;
 
 /**
  * REMINDER类型备忘项的专用字段
+ * 不进二级缓存：提醒调度每个周期都用JPQL批量更新租约和已通知标记，每次都会清空整个缓存区域
  */
 @Data
 @Entity
-@Table(name = "reminder_item")
+@Table(name = "reminder_item", indexes = {
+        // 到期查询：WHERE notified = false AND fire_time <= ? 走索引范围扫描
+        @Index(name = "idx_reminder_due", columnList = "notified, fire_time"),
+        @Index(name = "idx_reminder_remind_time", columnList = "remind_time")
+})
 public class ReminderItem {
     @Id
     private Long id;
@@ -44,8 +49,46 @@ public class ReminderItem {
     private Boolean notified = false;
 
     /**
-     * 下次提醒时间（用于重复提醒）
+     * 下次提醒时间（用于重复提醒，每次触发后由调度器推进到下一次）
      */
     @Column(name = "next_remind_time")
     private LocalDateTime nextRemindTime;
+
+    /**
+     * 实际触发时间 = 本次提醒时间 - 提前分钟数（保存时自动计算，到期查询只用这一列）
+     * 本次提醒时间：重复提醒取nextRemindTime，否则取remindTime
+     */
+    @Column(name = "fire_time")
+    private LocalDateTime fireTime;
+
+    /**
+     * 租约持有节点（多实例部署时，认领了该提醒的节点ID）
+     */
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    /**
+     * 租约到期时间，过期后其他节点可以重新认领（节点宕机时自动接管）
+     */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void computeFireTime() {
+        LocalDateTime occurrence = currentOccurrence();
+        if (occurrence == null) {
+            fireTime = null;
+            return;
+        }
+        int advance = advanceMinutes != null ? advanceMinutes : 0;
+        fireTime = occurrence.minusMinutes(advance);
+    }
+
+    /**
+     * 本次提醒时间
+     */
+    public LocalDateTime currentOccurrence() {
+        return nextRemindTime != null ? nextRemindTime : remindTime;
+    }
 }
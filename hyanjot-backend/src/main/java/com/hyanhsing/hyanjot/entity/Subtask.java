@@ -0,0 +1,49 @@
+package com.hyanhsing.hyanjot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * TODO的子任务（子任务模式使用）
+ * 每个子任务一行，id稳定不变，按 (position, id) 排序
+ */
+@Data
+@Entity
+@Table(name = "todo_subtask", indexes = {
+        @Index(name = "idx_subtask_todo_position", columnList = "todo_id, position, id")
+})
+public class Subtask {
+    // 号段分配ID（同Item），批量创建子任务时可以批量插入
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "todo_subtask")
+    @TableGenerator(name = "todo_subtask", table = "id_sequence", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "todo_subtask", allocationSize = 100)
+    private Long id;
+
+    /**
+     * 所属TODO的ID（即item.id）
+     */
+    @Column(name = "todo_id", nullable = false)
+    private Long todoId;
+
+    /**
+     * 排序位置，删除后不重排，允许有空隙
+     */
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false, length = 500)
+    private String text;
+
+    @Column(nullable = false)
+    private Boolean completed = false;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * TODO类型备忘项的专用字段
+ * 不进二级缓存：进度和子任务计数走JPQL原子更新，每次都会清空整个缓存区域，而且同一事务里更新后的读取仍会拿到缓存中的旧值
  */
 @Data
 @Entity
@@ -52,9 +54,23 @@ public class TodoItem {
     private Integer progressTotal;
 
     /**
-     * 子任务列表（子任务模式使用，JSON格式）
-     * 格式：[{"text":"任务1","completed":false}, {"text":"任务2","completed":true}]
+     * 已完成子任务数（子任务模式使用，随子任务增删改同步维护）
+     * 列表展示"3/7"和完成判断只读这两个计数，不需要加载子任务
      */
-    @Column(columnDefinition = "JSON")
-    private String subtasks;
+    @Column(name = "subtasks_done", columnDefinition = "INT DEFAULT 0")
+    private Integer subtasksDone = 0;
+
+    /**
+     * 子任务总数（子任务模式使用）
+     */
+    @Column(name = "subtasks_total", columnDefinition = "INT DEFAULT 0")
+    private Integer subtasksTotal = 0;
+
+    /**
+     * 子任务列表（子任务模式使用）
+     * 存在todo_subtask表中，由Service按需查询后填充
+     * 旧数据在todo_item.subtasks的JSON列中，见 migrate_subtasks.sql
+     */
+    @Transient
+    private List<Subtask> subtasks;
 }
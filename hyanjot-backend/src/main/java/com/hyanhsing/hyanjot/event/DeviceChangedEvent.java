@@ -0,0 +1,14 @@
+package com.hyanhsing.hyanjot.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 设备注册/删除事件（事务提交后再失效Token缓存，避免提交前的认证请求把旧数据重新放进缓存）
+ */
+@Data
+@AllArgsConstructor
+public class DeviceChangedEvent {
+    private Long deviceId;
+    private String deviceToken;
+}
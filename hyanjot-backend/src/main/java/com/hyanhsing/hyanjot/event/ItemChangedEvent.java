@@ -0,0 +1,28 @@
+package com.hyanhsing.hyanjot.event;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 备忘项变更事件（在修改备忘项的服务方法中发布，事务提交后再推送给订阅者）
+ */
+@Data
+@AllArgsConstructor
+public class ItemChangedEvent {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private Long userId;
+    private Long itemId;
+    private String itemType;
+    /**
+     * created / updated / deleted
+     */
+    private String action;
+
+    public static ItemChangedEvent of(Item item, String action) {
+        return new ItemChangedEvent(item.getUserId(), item.getId(), item.getType(), action);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hyanhsing.hyanjot.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 提醒到期事件（由ReminderDispatcher在触发时发布）
+ */
+@Data
+@AllArgsConstructor
+public class ReminderFiredEvent {
+    private Long itemId;
+    private Long userId;
+    private String title;
+    /**
+     * 本次提醒时间（重复提醒为本次出现的时间）
+     */
+    private LocalDateTime remindTime;
+    private LocalDateTime fireTime;
+    private String repeatType;
+}
@@ -0,0 +1,311 @@
+package com.hyanhsing.hyanjot.gateway;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 硬件设备的二进制TCP网关（帧格式见GatewayProtocol）
+ *
+ * 一个选择器线程负责所有连接的收发和拆帧，命令交给工作线程池执行（会访问数据库）
+ * 每条连接认证一次，之后的命令不再经过HTTP解析和Spring Security过滤器
+ * 默认关闭，设置 hyanjot.gateway.enabled=true 启用
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hyanjot.gateway.enabled", havingValue = "true")
+public class DeviceGatewayServer {
+
+    @Autowired
+    private GatewayCommandHandler commandHandler;
+
+    @Value("${hyanjot.gateway.port:9090}")
+    private int port;
+
+    @Value("${hyanjot.gateway.worker-threads:4}")
+    private int workerThreads;
+
+    /**
+     * 连接空闲多久断开（设备应定时发PING）
+     */
+    @Value("${hyanjot.gateway.idle-timeout-seconds:300}")
+    private long idleTimeoutSeconds;
+
+    /**
+     * 连接建立后多久内必须认证成功
+     */
+    @Value("${hyanjot.gateway.auth-timeout-seconds:5}")
+    private long authTimeoutSeconds;
+
+    /**
+     * 每条连接最多同时处理的请求数，达到后暂停读取，响应写出后再继续
+     */
+    @Value("${hyanjot.gateway.max-in-flight:16}")
+    private int maxInFlight;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * 工作线程写好响应后登记到这里，由选择器线程负责注册写事件
+     */
+    private final Queue<GatewayConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "gateway-worker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        selectorThread = new Thread(this::loop, "gateway-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        log.info("硬件网关已启动，端口{}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown();
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            log.warn("关闭硬件网关失败", e);
+        }
+    }
+
+    /**
+     * 实际监听的端口（配置为0时由系统分配）
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return port;
+        }
+    }
+
+    private void loop() {
+        long lastIdleCheck = System.currentTimeMillis();
+        while (running) {
+            try {
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write((GatewayConnection) key.attachment());
+                            }
+                        }
+                    } catch (IOException e) {
+                        closeQuietly(key);
+                    }
+                }
+                registerWrites();
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck > 1000) {
+                    closeExpired(now);
+                    lastIdleCheck = now;
+                }
+            } catch (IOException e) {
+                log.warn("硬件网关选择器异常", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new GatewayConnection(channel, key));
+    }
+
+    /**
+     * 读取到读缓冲后拆帧；暂停读取期间不会被调用
+     */
+    private void read(SelectionKey key) throws IOException {
+        GatewayConnection connection = (GatewayConnection) key.attachment();
+        if (connection.channel.read(connection.in) < 0) {
+            closeQuietly(key);
+            return;
+        }
+        connection.lastActive = System.currentTimeMillis();
+        processFrames(connection);
+    }
+
+    /**
+     * 拆帧：len(u16)后面跟len个字节，可能一次读到多帧，也可能半帧
+     * 处理中的请求达到上限时停止拆帧并暂停读取，剩下的字节留在读缓冲里，等响应写出后再继续
+     */
+    private void processFrames(GatewayConnection connection) {
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (connection.inFlight < maxInFlight && in.remaining() >= 2) {
+            int len = in.getShort(in.position()) & 0xFFFF;
+            if (len < GatewayProtocol.HEADER || len > GatewayProtocol.MAX_FRAME) {
+                // 帧长度非法，协议已错位，直接断开
+                closeQuietly(connection.key);
+                return;
+            }
+            if (in.remaining() < 2 + len) {
+                break;
+            }
+            in.position(in.position() + 2);
+            ByteBuffer frame = ByteBuffer.allocate(len);
+            in.get(frame.array());
+            connection.inFlight++;
+            if (connection.enqueue(frame)) {
+                workers.execute(() -> drain(connection));
+            }
+        }
+        in.compact();
+        updateInterest(connection);
+    }
+
+    /**
+     * 在工作线程中按顺序处理一条连接上积压的请求
+     */
+    private void drain(GatewayConnection connection) {
+        ByteBuffer frame;
+        while ((frame = connection.next()) != null) {
+            ByteBuffer reply;
+            try {
+                reply = commandHandler.handle(connection, frame);
+            } catch (RuntimeException e) {
+                log.warn("硬件网关命令处理失败", e);
+                frame.rewind();
+                int op = frame.get() & 0xFF;
+                int reqId = frame.getShort() & 0xFFFF;
+                reply = GatewayProtocol.reply(op, reqId, GatewayProtocol.STATUS_ERROR, null);
+            }
+            connection.out.add(reply);
+            pendingWrites.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    private void registerWrites() {
+        GatewayConnection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            if (!connection.key.isValid()) {
+                continue;
+            }
+            try {
+                write(connection);
+            } catch (IOException e) {
+                closeQuietly(connection.key);
+            }
+        }
+    }
+
+    /**
+     * 尽量写完待发送的响应，写不完时关注可写事件，下次继续
+     */
+    private void write(GatewayConnection connection) throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = connection.out.peek()) != null) {
+            connection.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break;
+            }
+            connection.out.poll();
+            connection.inFlight--;
+        }
+        if (connection.inFlight < maxInFlight && connection.in.position() > 0) {
+            // 暂停读取期间已收到的帧还在读缓冲里，不会再触发可读事件
+            processFrames(connection);
+        } else {
+            updateInterest(connection);
+        }
+    }
+
+    /**
+     * 处理中的请求未达上限时才关注可读事件；只有选择器线程会取出响应，所以out非空时一定还有数据要写
+     */
+    private void updateInterest(GatewayConnection connection) {
+        int ops = connection.inFlight < maxInFlight ? SelectionKey.OP_READ : 0;
+        if (!connection.out.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        connection.key.interestOps(ops);
+    }
+
+    /**
+     * 关闭空闲超时的连接，以及建立后迟迟没有认证成功的连接
+     */
+    private void closeExpired(long now) {
+        long idleMs = idleTimeoutSeconds * 1000;
+        long authMs = authTimeoutSeconds * 1000;
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof GatewayConnection connection
+                    && (now - connection.lastActive > idleMs
+                    || (connection.deviceId == null && now - connection.connectedAt > authMs))) {
+                closeQuietly(key);
+            }
+        }
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // 连接已断开
+        }
+    }
+}
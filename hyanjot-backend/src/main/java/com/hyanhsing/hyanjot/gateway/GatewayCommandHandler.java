@@ -0,0 +1,133 @@
+package com.hyanhsing.hyanjot.gateway;
+
+import com.hyanhsing.hyanjot.entity.Device;
+import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.service.DeviceService;
+import com.hyanhsing.hyanjot.service.ItemService;
+import com.hyanhsing.hyanjot.service.TodoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static com.hyanhsing.hyanjot.gateway.GatewayProtocol.*;
+
+/**
+ * 执行网关命令：直接调用与HTTP接口相同的服务，返回定长响应帧
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hyanjot.gateway.enabled", havingValue = "true")
+public class GatewayCommandHandler {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TodoService todoService;
+
+    /**
+     * @param frame op开始的一帧请求（不含len）
+     */
+    ByteBuffer handle(GatewayConnection connection, ByteBuffer frame) {
+        int op = frame.get() & 0xFF;
+        int reqId = frame.getShort() & 0xFFFF;
+        try {
+            if (op == OP_AUTH) {
+                return auth(connection, op, reqId, frame);
+            }
+            if (connection.deviceId == null) {
+                return reply(op, reqId, STATUS_UNAUTHORIZED, null);
+            }
+            switch (op) {
+                case OP_PING:
+                    deviceService.updateLastOnline(connection.deviceId);
+                    return reply(op, reqId, STATUS_OK, null);
+                case OP_INCREMENT:
+                case OP_DECREMENT:
+                case OP_TOGGLE_SUBTASK:
+                case OP_FETCH:
+                    return todoCommand(connection, op, reqId, frame);
+                default:
+                    return reply(op, reqId, STATUS_BAD_REQUEST, null);
+            }
+        } catch (BufferUnderflowException e) {
+            return reply(op, reqId, STATUS_BAD_REQUEST, null);
+        } catch (RuntimeException e) {
+            // 业务校验失败（非进度模式、子任务下标越界等），与HTTP接口的RuntimeException对应
+            log.debug("网关命令被拒绝: op={} device={} {}", op, connection.deviceId, e.getMessage());
+            return reply(op, reqId, STATUS_REJECTED, null);
+        }
+    }
+
+    private ByteBuffer auth(GatewayConnection connection, int op, int reqId, ByteBuffer frame) {
+        byte[] token = new byte[frame.remaining()];
+        frame.get(token);
+        Optional<Device> device = deviceService.findByDeviceToken(new String(token, StandardCharsets.US_ASCII));
+        if (device.isEmpty()) {
+            return reply(op, reqId, STATUS_UNAUTHORIZED, null);
+        }
+        connection.deviceId = device.get().getId();
+        connection.userId = device.get().getUserId();
+        connection.ownedItems.clear();
+        deviceService.updateLastOnline(connection.deviceId);
+        ByteBuffer payload = ByteBuffer.allocate(16)
+                .putLong(connection.deviceId)
+                .putLong(connection.userId)
+                .flip();
+        return reply(op, reqId, STATUS_OK, payload);
+    }
+
+    private ByteBuffer todoCommand(GatewayConnection connection, int op, int reqId, ByteBuffer frame) {
+        long itemId = frame.getLong();
+        if (!ownsTodo(connection, itemId)) {
+            return reply(op, reqId, STATUS_NOT_FOUND, null);
+        }
+        TodoItem todoItem = switch (op) {
+            case OP_INCREMENT -> todoService.incrementProgress(itemId);
+            case OP_DECREMENT -> todoService.decrementProgress(itemId);
+            case OP_TOGGLE_SUBTASK -> todoService.toggleSubtask(itemId, frame.getShort() & 0xFFFF);
+            default -> todoService.getTodoWithSubtasks(itemId);
+        };
+        return reply(op, reqId, STATUS_OK, progressOf(todoItem));
+    }
+
+    /**
+     * 只能操作本用户的TODO；其他用户的和不存在的一样返回NOT_FOUND
+     */
+    private boolean ownsTodo(GatewayConnection connection, long itemId) {
+        if (connection.ownedItems.contains(itemId)) {
+            return true;
+        }
+        boolean owned = itemService.findById(itemId)
+                .filter(item -> "TODO".equals(item.getType()))
+                .filter(item -> connection.userId.equals(item.getUserId()))
+                .isPresent();
+        if (owned) {
+            connection.ownedItems.add(itemId);
+        }
+        return owned;
+    }
+
+    private ByteBuffer progressOf(TodoItem todoItem) {
+        if (Boolean.TRUE.equals(todoItem.getProgressMode())) {
+            int current = todoItem.getProgressCurrent() != null ? todoItem.getProgressCurrent() : 0;
+            int total = todoItem.getProgressTotal() != null ? todoItem.getProgressTotal() : 0;
+            return progress(MODE_PROGRESS, current, total, total > 0 && current >= total);
+        }
+        if (Boolean.FALSE.equals(todoItem.getProgressMode())) {
+            int done = todoItem.getSubtasksDone() != null ? todoItem.getSubtasksDone() : 0;
+            int total = todoItem.getSubtasksTotal() != null ? todoItem.getSubtasksTotal() : 0;
+            return progress(MODE_SUBTASKS, done, total, total > 0 && done >= total);
+        }
+        return progress(MODE_NORMAL, 0, 0, "completed".equals(todoItem.getItem().getStatus()));
+    }
+}
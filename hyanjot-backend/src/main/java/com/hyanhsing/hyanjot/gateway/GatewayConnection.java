@@ -0,0 +1,73 @@
+package com.hyanhsing.hyanjot.gateway;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 网关上的一条设备连接
+ * 读缓冲只由选择器线程访问；请求按到达顺序串行交给工作线程处理，保证AUTH先于后续命令完成
+ */
+class GatewayConnection {
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer in = ByteBuffer.allocate(2 + GatewayProtocol.MAX_FRAME);
+    final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+    final long connectedAt = System.currentTimeMillis();
+    volatile long lastActive = connectedAt;
+
+    /**
+     * 已读出但响应还没写完的请求数，只由选择器线程访问
+     */
+    int inFlight;
+
+    /**
+     * 待处理的请求帧及是否已有工作线程在处理，均在synchronized(this)下访问
+     */
+    private final Queue<ByteBuffer> pending = new ArrayDeque<>();
+    private boolean draining;
+
+    /**
+     * 认证后的设备，在工作线程中写入（同一连接的请求串行处理），选择器线程据此关闭超时未认证的连接
+     */
+    volatile Long deviceId;
+    Long userId;
+
+    /**
+     * 已确认属于该用户的TODO，避免每条命令都校验一次归属
+     */
+    final Set<Long> ownedItems = ConcurrentHashMap.newKeySet();
+
+    GatewayConnection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * 加入一帧请求，返回是否需要安排工作线程处理
+     */
+    synchronized boolean enqueue(ByteBuffer frame) {
+        pending.add(frame);
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * 取下一帧，没有时结束本轮处理
+     */
+    synchronized ByteBuffer next() {
+        ByteBuffer frame = pending.poll();
+        if (frame == null) {
+            draining = false;
+        }
+        return frame;
+    }
+}
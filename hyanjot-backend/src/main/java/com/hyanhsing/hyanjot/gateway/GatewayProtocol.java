@@ -0,0 +1,86 @@
+package com.hyanhsing.hyanjot.gateway;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 硬件网关的二进制帧格式（全部大端序）
+ *
+ * 请求：len(u16) | op(u8) | reqId(u16) | payload
+ * 响应：len(u16) | op|0x80(u8) | reqId(u16) | status(u8) | payload
+ * len为其后的字节数（不含len自身）；reqId由设备自行分配，响应原样带回，同一连接上可以连续发多条请求
+ *
+ * 连接建立后必须先发AUTH，之后的命令都以该设备所属用户的身份执行
+ *
+ *   op    请求payload                  响应payload（status=OK时）
+ *   0x01  AUTH       token(ASCII)      deviceId(i64) userId(i64)
+ *   0x02  INCREMENT  itemId(i64)       PROGRESS
+ *   0x03  DECREMENT  itemId(i64)       PROGRESS
+ *   0x04  TOGGLE     itemId(i64) index(u16)  PROGRESS
+ *   0x05  FETCH      itemId(i64)       PROGRESS
+ *   0x06  PING       -                 -
+ *
+ * PROGRESS = mode(u8: 0普通 1进度 2子任务) current(i32) total(i32) completed(u8)，共10字节
+ * 子任务模式下current/total为已完成/总子任务数
+ */
+public final class GatewayProtocol {
+
+    public static final int OP_AUTH = 0x01;
+    public static final int OP_INCREMENT = 0x02;
+    public static final int OP_DECREMENT = 0x03;
+    public static final int OP_TOGGLE_SUBTASK = 0x04;
+    public static final int OP_FETCH = 0x05;
+    public static final int OP_PING = 0x06;
+
+    public static final int REPLY_FLAG = 0x80;
+
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_UNAUTHORIZED = 1;
+    public static final int STATUS_NOT_FOUND = 2;
+    public static final int STATUS_REJECTED = 3;
+    public static final int STATUS_BAD_REQUEST = 4;
+    public static final int STATUS_ERROR = 5;
+
+    public static final int MODE_NORMAL = 0;
+    public static final int MODE_PROGRESS = 1;
+    public static final int MODE_SUBTASKS = 2;
+
+    /**
+     * 单帧最大长度（不含len），超过直接断开连接
+     */
+    public static final int MAX_FRAME = 256;
+
+    /**
+     * op + reqId
+     */
+    public static final int HEADER = 3;
+
+    public static final int PROGRESS_SIZE = 10;
+
+    private GatewayProtocol() {
+    }
+
+    /**
+     * 构造响应帧，返回已flip、可直接写出的缓冲
+     */
+    public static ByteBuffer reply(int op, int reqId, int status, ByteBuffer payload) {
+        int payloadSize = payload != null ? payload.remaining() : 0;
+        ByteBuffer frame = ByteBuffer.allocate(2 + HEADER + 1 + payloadSize);
+        frame.putShort((short) (HEADER + 1 + payloadSize));
+        frame.put((byte) (op | REPLY_FLAG));
+        frame.putShort((short) reqId);
+        frame.put((byte) status);
+        if (payload != null) {
+            frame.put(payload);
+        }
+        return frame.flip();
+    }
+
+    public static ByteBuffer progress(int mode, int current, int total, boolean completed) {
+        return ByteBuffer.allocate(PROGRESS_SIZE)
+                .put((byte) mode)
+                .putInt(current)
+                .putInt(total)
+                .put((byte) (completed ? 1 : 0))
+                .flip();
+    }
+}
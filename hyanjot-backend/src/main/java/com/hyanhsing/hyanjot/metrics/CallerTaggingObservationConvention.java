@@ -0,0 +1,18 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * 在http.server.requests上加caller标签（hardware/web），其余标签与默认一致
+ */
+@Component
+public class CallerTaggingObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and("caller", CallerType.of(context.getPathPattern()));
+    }
+}
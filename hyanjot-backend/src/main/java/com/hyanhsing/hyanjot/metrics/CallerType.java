@@ -0,0 +1,36 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import java.util.Set;
+
+/**
+ * 按路由区分调用方：硬件端只调用设备认证、进度加减和子任务切换（见ItemController/DeviceController中"硬件端用"的接口），
+ * 其余都是网页端调用
+ * 用路由模板而不是实际路径判断，标签取值固定，不会随ID膨胀
+ */
+public final class CallerType {
+
+    public static final String HARDWARE = "hardware";
+
+    public static final String WEB = "web";
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final Set<String> HARDWARE_ROUTES = Set.of(
+            "/api/device/auth/{token}",
+            "/api/item/{id}/progress/increment",
+            "/api/item/{id}/progress/decrement",
+            "/api/item/{id}/subtask/{index}/toggle");
+
+    private CallerType() {
+    }
+
+    /**
+     * pathPattern为null表示没有匹配到路由（404、静态资源等）
+     */
+    public static String of(String pathPattern) {
+        if (pathPattern == null) {
+            return UNKNOWN;
+        }
+        return HARDWARE_ROUTES.contains(pathPattern) ? HARDWARE : WEB;
+    }
+}
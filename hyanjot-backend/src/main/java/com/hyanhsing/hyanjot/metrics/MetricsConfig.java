@@ -0,0 +1,43 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 应用自己的指标，和Spring Boot自带的一起从/actuator/prometheus导出：
+ * - http.server.requests：各路由延迟直方图，caller标签区分硬件端/网页端
+ * - hyanjot.http.hibernate.statements：每个请求的SQL语句数
+ * - hyanjot.json：JSON序列化/反序列化耗时
+ * 连接池（hikaricp.*）、Hibernate统计（hibernate.*）和响应缓存（cache.*）由各自的MeterBinder导出
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        StatementCounter counter = new StatementCounter();
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    @Bean
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                             MeterRegistry meterRegistry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer requestStatementsInterceptorConfigurer(MeterRegistry meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestStatementsInterceptor(meterRegistry)).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 每个请求执行的SQL语句数，按路由和调用方记录到hyanjot.http.hibernate.statements
+ * 用来发现N+1查询：同一路由的语句数分布应当是固定的几个值，不随数据量增长
+ */
+public class RequestStatementsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatementsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            StatementCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int statements = StatementCounter.stop();
+        if (statements < 0) {
+            return;
+        }
+        String uri = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("hyanjot.http.hibernate.statements")
+                .description("每个请求Hibernate执行的SQL语句数")
+                .tag("method", request.getMethod())
+                .tag("uri", uri != null ? uri : "UNKNOWN")
+                .tag("caller", CallerType.of(uri))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements);
+    }
+
+    /**
+     * SSE等异步请求在这里释放请求线程，清掉本线程的计数（异步结果分派时会重新走preHandle）
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.stop();
+    }
+}
@@ -0,0 +1,35 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 统计当前线程在start()和stop()之间Hibernate准备的SQL语句数
+ * 注册为hibernate.session_factory.statement_inspector，每条语句准备时调用一次，不修改SQL
+ * 批量写入时同一条SQL的一批只算一次；绕过Hibernate的JdbcTemplate语句不计入
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * 结束计数并返回语句数，没有调用过start()时返回-1
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : -1;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
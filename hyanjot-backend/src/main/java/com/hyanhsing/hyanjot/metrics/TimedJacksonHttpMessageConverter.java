@@ -0,0 +1,78 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录请求体反序列化和响应体序列化的耗时（hyanjot.json，operation=read/write，type=对象类名）
+ * 写出时直接写到响应流，响应超过Tomcat输出缓冲区（默认8KB）时耗时包含一部分网络写入
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry meterRegistry;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * JSON编解码计时器，供不经过消息转换器的序列化（如响应缓存）共用同一个指标
+     */
+    public static Timer timer(MeterRegistry meterRegistry, String operation, String type) {
+        return Timer.builder("hyanjot.json")
+                .description("JSON序列化/反序列化耗时")
+                .tag("operation", operation)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            record("read", ResolvableType.forType(type).toClass().getSimpleName(), start);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            record("read", clazz.getSimpleName(), start);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            record("write", object.getClass().getSimpleName(), start);
+        }
+    }
+
+    private void record(String operation, String type, long start) {
+        timer(meterRegistry, operation, type).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hyanhsing.hyanjot.push;
+
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.event.ReminderFiredEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 把应用内事件转发到PushHub
+ */
+@Component
+public class PushEventListener {
+
+    @Autowired
+    private PushHub pushHub;
+
+    /**
+     * 事务提交后才推送，客户端收到事件再来拉取时一定能读到新数据；回滚的修改不会推送
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        pushHub.publish(event.getUserId(), "item", event);
+    }
+
+    @EventListener
+    public void onReminderFired(ReminderFiredEvent event) {
+        pushHub.publish(event.getUserId(), "reminder", event);
+    }
+}
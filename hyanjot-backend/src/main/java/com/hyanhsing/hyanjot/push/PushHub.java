@@ -0,0 +1,427 @@
+package com.hyanhsing.hyanjot.push;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按用户推送变更的SSE中心
+ *
+ * SseEmitter基于Servlet异步请求，空闲连接不占用线程，只占一个socket
+ * 每个用户一个频道：自增序号 + 最近buffer-size条事件的环形缓冲
+ * 事件ID为 "节点纪元-序号"，客户端断线重连时带上Last-Event-ID即可补发错过的事件；
+ * 纪元不同（服务重启或连到了别的节点）或者错过的事件已被挤出缓冲时，发送reset事件，客户端需要全量刷新
+ *
+ * 写socket可能阻塞（客户端不读、TCP发送缓冲区满），所以每个订阅者有自己的待发队列，由发送线程池逐个订阅者发送：
+ * 一个订阅者卡住只占一个发送线程，不影响其他用户的推送和心跳；待发事件超过max-backlog的订阅者直接断开，
+ * 客户端带Last-Event-ID重连后从环形缓冲补发（或收到reset）
+ * SseEmitter没有非阻塞发送，也不能在另一个线程打断正在进行的send，卡住的写只能等Tomcat写超时返回；
+ * 单次发送超过send-timeout-ms的订阅者被判定为卡住：立即断开（不再排队），并给线程池补一个线程，
+ * 卡住的连接再多也不会占满发送线程，写超时返回后补的线程收回
+ *
+ * 只推送本节点上发生的变更：事件来自本节点的ItemChangedEvent，节点之间不转发
+ * 多实例部署时需按用户粘性路由（同一用户的写请求和SSE连接到同一节点），
+ * 否则其他节点上的修改要等客户端重连（收到reset后全量刷新）或下一次增量同步才能看到
+ */
+@Slf4j
+@Component
+public class PushHub {
+
+    @Value("${hyanjot.push.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${hyanjot.push.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${hyanjot.push.idle-channel-ms:600000}")
+    private long idleChannelMs;
+
+    @Value("${hyanjot.push.sender-threads:8}")
+    private int senderThreads;
+
+    @Value("${hyanjot.push.max-backlog:64}")
+    private int maxBacklog;
+
+    @Value("${hyanjot.push.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * 本节点纪元，区分重启前后的序号
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * 发送线程池，同一订阅者同时只有一个任务在发送，保证按序号顺序到达
+     * 线程数 = sender-threads + 当前卡住的发送数
+     */
+    private ThreadPoolExecutor sender;
+
+    /**
+     * 正在发送的订阅者，供checkStalledSends检查
+     */
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+
+    private int stalledSends;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger index = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "push-sender-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 订阅某个用户的变更
+     * @param lastEventId 客户端最后收到的事件ID，首次连接为空
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(userId, lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(userId, id -> new Channel());
+            // 补发和加入订阅在同一把锁内完成，中间不会漏掉新事件
+            synchronized (channel) {
+                if (channel.closed) {
+                    // 刚被清理掉的空闲频道，重新取一个
+                    continue;
+                }
+                attach(channel, emitter, lastEventId);
+                return emitter;
+            }
+        }
+    }
+
+    /**
+     * 补发错过的事件后加入订阅，调用方需持有channel锁
+     * 补发的事件也进待发队列，订阅请求线程不写socket
+     */
+    private void attach(Channel channel, SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+        channel.lastActive = System.currentTimeMillis();
+        List<PushEvent> missed = channel.since(epoch, lastEventId);
+        if (missed == null) {
+            subscriber.offer(SseEmitter.event().name("reset").id(channel.currentId(epoch)).data("reset"));
+        } else if (lastEventId == null || lastEventId.isEmpty()) {
+            subscriber.offer(SseEmitter.event().name("hello").id(channel.currentId(epoch)).data("hello"));
+        } else {
+            for (PushEvent event : missed) {
+                subscriber.offer(event.toSse(epoch));
+            }
+        }
+        channel.subscribers.add(subscriber);
+    }
+
+    /**
+     * 向某个用户的所有订阅者推送事件
+     * 该用户没有活跃频道（最近没人订阅）时直接丢弃，客户端连上时会全量加载
+     * 只放进各订阅者的待发队列，不写socket，可以在请求线程里直接调用
+     */
+    public void publish(Long userId, String name, Object data) {
+        if (userId == null) {
+            return;
+        }
+        Channel channel = channels.get(userId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            PushEvent event = channel.append(name, data, bufferSize);
+            for (Subscriber subscriber : channel.subscribers) {
+                if (!subscriber.offer(event.toSse(epoch))) {
+                    log.info("用户{}的推送连接积压超过{}条，断开等待重连", userId, maxBacklog);
+                }
+            }
+        }
+    }
+
+    /**
+     * 定时心跳：保持连接不被代理/NAT断开，同时清理已经断开的连接和长时间无人订阅的频道
+     * 还有事件待发的订阅者不需要心跳
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty()) {
+                    if (now - channel.lastActive > idleChannelMs) {
+                        channel.closed = true;
+                        channels.remove(entry.getKey(), channel);
+                    }
+                    continue;
+                }
+                channel.lastActive = now;
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offerHeartbeat();
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查卡住的发送：超过send-timeout-ms仍未返回的订阅者断开，并补一个发送线程
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.push.send-check-ms:1000}")
+    public void checkStalledSends() {
+        long deadline = System.currentTimeMillis() - sendTimeoutMs;
+        for (Subscriber subscriber : sending) {
+            if (subscriber.stallIfSendingBefore(deadline)) {
+                log.info("推送连接发送超过{}ms未返回，断开等待重连", sendTimeoutMs);
+            }
+        }
+    }
+
+    /**
+     * 卡住的发送开始/结束时增减线程数；扩容先调最大值，缩容先调核心数
+     */
+    private synchronized void resizeSender(int delta) {
+        stalledSends += delta;
+        int size = senderThreads + stalledSends;
+        if (delta > 0) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int subscriberCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.subscribers.size();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * 一个SSE连接及其待发队列
+     * 队列非空时最多有一个发送任务在线程池中运行，依次发送直到队列为空；
+     * 断开（积压超限、发送超时、发送失败）也由发送任务执行，不会和正在进行的发送并发调用emitter
+     */
+    private final class Subscriber implements Runnable {
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> backlog = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+        /**
+         * 当前发送的开始时间，没有在发送时为0
+         */
+        private long sendingSince;
+        /**
+         * 当前发送已被判定为卡住，发送线程已补充
+         */
+        private boolean stalled;
+
+        Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        /**
+         * 放入待发队列，积压超限时断开并返回false
+         */
+        synchronized boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return true;
+            }
+            if (backlog.size() >= maxBacklog) {
+                closed = true;
+                backlog.clear();
+                channel.subscribers.remove(this);
+                schedule();
+                return false;
+            }
+            backlog.addLast(event);
+            schedule();
+            return true;
+        }
+
+        synchronized void offerHeartbeat() {
+            if (!closed && backlog.isEmpty() && !scheduled) {
+                backlog.addLast(SseEmitter.event().comment("hb"));
+                schedule();
+            }
+        }
+
+        /**
+         * 发送开始早于deadline时判定为卡住：断开，并补一个发送线程，返回是否新判定
+         */
+        synchronized boolean stallIfSendingBefore(long deadline) {
+            if (stalled || sendingSince == 0 || sendingSince >= deadline) {
+                return false;
+            }
+            stalled = true;
+            closed = true;
+            backlog.clear();
+            channel.subscribers.remove(this);
+            resizeSender(1);
+            return true;
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                sender.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : backlog.pollFirst();
+                    if (event == null) {
+                        scheduled = false;
+                        if (!closed) {
+                            return;
+                        }
+                    } else {
+                        sendingSince = System.currentTimeMillis();
+                    }
+                }
+                if (event == null) {
+                    emitter.complete();
+                    return;
+                }
+                sending.add(this);
+                Exception error = null;
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    error = e;
+                }
+                sending.remove(this);
+                synchronized (this) {
+                    sendingSince = 0;
+                    if (stalled) {
+                        // 卡住的写已返回，收回补充的线程；closed已置位，下一轮结束连接
+                        stalled = false;
+                        resizeSender(-1);
+                    }
+                    if (error != null) {
+                        closed = true;
+                        backlog.clear();
+                        scheduled = false;
+                    }
+                }
+                if (error != null) {
+                    // 客户端已断开
+                    channel.subscribers.remove(this);
+                    emitter.completeWithError(error);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class Channel {
+        private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<PushEvent> ring = new ArrayDeque<>();
+        private long seq;
+        private boolean closed;
+        private volatile long lastActive = System.currentTimeMillis();
+
+        PushEvent append(String name, Object data, int capacity) {
+            PushEvent event = new PushEvent(++seq, name, data);
+            ring.addLast(event);
+            while (ring.size() > capacity) {
+                ring.removeFirst();
+            }
+            return event;
+        }
+
+        String currentId(String epoch) {
+            return epoch + "-" + seq;
+        }
+
+        /**
+         * lastEventId之后的事件；无法补全时返回null
+         */
+        List<PushEvent> since(String epoch, String lastEventId) {
+            if (lastEventId == null || lastEventId.isEmpty()) {
+                return List.of();
+            }
+            int dash = lastEventId.lastIndexOf('-');
+            if (dash <= 0 || !epoch.equals(lastEventId.substring(0, dash))) {
+                return null;
+            }
+            long last;
+            try {
+                last = Long.parseLong(lastEventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (last > seq || (last < seq && (ring.isEmpty() || last + 1 < ring.peekFirst().seq))) {
+                return null;
+            }
+            List<PushEvent> missed = new ArrayList<>();
+            for (PushEvent event : ring) {
+                if (event.seq > last) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+
+    private static class PushEvent {
+        private final long seq;
+        private final String name;
+        private final Object data;
+
+        PushEvent(long seq, String name, Object data) {
+            this.seq = seq;
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toSse(String epoch) {
+            return SseEmitter.event().id(epoch + "-" + seq).name(name).data(data);
+        }
+    }
+}
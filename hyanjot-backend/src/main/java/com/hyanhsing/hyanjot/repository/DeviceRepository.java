@@ -1,7 +1,10 @@
 package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.Device;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +15,10 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
     // 根据用户ID查找设备列表
     List<Device> findByUserId(Long userId);
 
-    // 根据设备Token查找（硬件认证用）
+    // 根据设备Token查找（硬件认证用），结果缓存在查询缓存中，device表有写入时失效
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "lookup-query")
+    })
     Optional<Device> findByDeviceToken(String deviceToken);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.hyanhsing.hyanjot.repository;
+
+import com.hyanhsing.hyanjot.entity.HabitCheckYear;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitCheckYearRepository extends JpaRepository<HabitCheckYear, Long> {
+
+    Optional<HabitCheckYear> findByHabitIdAndCheckYear(Long habitId, Integer checkYear);
+
+    /**
+     * 按年份升序返回某个习惯的全部位图（每年一行，行数很少）
+     */
+    List<HabitCheckYear> findByHabitIdOrderByCheckYearAsc(Long habitId);
+
+    // 删除HABIT时一并删除打卡位图
+    @Modifying
+    @Query("DELETE FROM HabitCheckYear h WHERE h.habitId = :habitId")
+    int deleteByHabitId(@Param("habitId") Long habitId);
+
+    // 批量删除HABIT时一次删掉所有位图
+    @Modifying
+    @Query("DELETE FROM HabitCheckYear h WHERE h.habitId IN :habitIds")
+    int deleteByHabitIdIn(@Param("habitIds") Collection<Long> habitIds);
+}
@@ -1,9 +1,27 @@
 package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.HabitItem;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface HabitItemRepository extends JpaRepository<HabitItem, Long> {
+
+    /**
+     * 锁住习惯行，串行化同一习惯的打卡（包括当年位图行的首次插入）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM HabitItem h WHERE h.id = :id")
+    Optional<HabitItem> findByIdForUpdate(@Param("id") Long id);
+
+    // 仍保存着旧JSON打卡历史、尚未迁移到位图的习惯
+    @Query("SELECT h.id FROM HabitItem h WHERE h.checkHistory IS NOT NULL ORDER BY h.id")
+    List<Long> findIdsWithCheckHistory();
 }
@@ -1,9 +1,18 @@
 package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.Item;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -15,4 +24,109 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     // 根据用户ID和状态查找
     List<Item> findByUserIdAndStatusOrderBySortOrderAsc(Long userId, String status);  // ← 加 OrderBySortOrderAsc
-}
\ No newline at end of file
+
+    // ==================== 游标分页（keyset） ====================
+    // 从 (sortOrder, id) 之后开始取，走 (user_id, sort_order, id) 索引范围扫描，不使用 OFFSET
+    // pageable 只用来传 LIMIT，调用方传 PageRequest.ofSize(n)
+
+    @Query("SELECT i FROM Item i WHERE i.userId = :userId " +
+            "AND (i.sortOrder > :sortOrder OR (i.sortOrder = :sortOrder AND i.id > :id)) " +
+            "ORDER BY i.sortOrder ASC, i.id ASC")
+    List<Item> findPageByUserId(@Param("userId") Long userId,
+                                @Param("sortOrder") Integer sortOrder,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    @Query("SELECT i FROM Item i WHERE i.userId = :userId AND i.type = :type " +
+            "AND (i.sortOrder > :sortOrder OR (i.sortOrder = :sortOrder AND i.id > :id)) " +
+            "ORDER BY i.sortOrder ASC, i.id ASC")
+    List<Item> findPageByUserIdAndType(@Param("userId") Long userId,
+                                       @Param("type") String type,
+                                       @Param("sortOrder") Integer sortOrder,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @Query("SELECT i FROM Item i WHERE i.userId = :userId AND i.status = :status " +
+            "AND (i.sortOrder > :sortOrder OR (i.sortOrder = :sortOrder AND i.id > :id)) " +
+            "ORDER BY i.sortOrder ASC, i.id ASC")
+    List<Item> findPageByUserIdAndStatus(@Param("userId") Long userId,
+                                         @Param("status") String status,
+                                         @Param("sortOrder") Integer sortOrder,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * 按ID分批遍历全部备忘项（重建搜索索引用）
+     */
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // ==================== 排序 ====================
+
+    /**
+     * 各用户当前最大的排序值，新备忘项追加到末尾时使用；没有备忘项的用户不返回
+     */
+    @Query("SELECT i.userId, MAX(i.sortOrder) FROM Item i WHERE i.userId IN :userIds GROUP BY i.userId")
+    List<Object[]> findMaxSortOrders(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 备忘项所属的用户，只取一列
+     */
+    @Query("SELECT i.userId FROM Item i WHERE i.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /**
+     * 用户备忘项的条数和最近修改时间，判断其他节点是否写过该用户的数据（所有写入都会更新updatedAt）
+     */
+    @Query("SELECT COUNT(i), MAX(i.updatedAt) FROM Item i WHERE i.userId = :userId")
+    List<Object[]> findChangeFingerprint(@Param("userId") Long userId);
+
+    /**
+     * 有排序值为NULL的备忘项的用户（旧数据），启动时补齐排序值
+     */
+    @Query("SELECT DISTINCT i.userId FROM Item i WHERE i.sortOrder IS NULL")
+    List<Long> findUserIdsWithNullSortOrder();
+
+    /**
+     * 按ID顺序锁定若干备忘项（移动时锁定自身和两侧的备忘项）
+     * 统一按ID加锁，和重排时的加锁顺序一致，避免死锁
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id ASC")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按ID顺序锁定用户的全部备忘项（重排排序值时使用）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.userId = :userId ORDER BY i.id ASC")
+    List<Item> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * 只在状态确实变化时更新（完成状态翻转时才会产生写入）
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.status = :status, i.updatedAt = :now WHERE i.id = :id AND i.status <> :status")
+    int updateStatusIfChanged(@Param("id") Long id,
+                              @Param("status") String status,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * 子表（进度、子任务、打卡、提醒状态）变化时刷新主表的updated_at，让增量同步能发现这些变化
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.updatedAt = :now WHERE i.id IN :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 增量同步：水位之后、上界之前变化过的备忘项，按 (updatedAt, id) 排序
+     */
+    @Query("SELECT i FROM Item i WHERE i.userId = :userId " +
+            "AND (i.updatedAt > :afterTime OR (i.updatedAt = :afterTime AND i.id > :afterId)) " +
+            "AND i.updatedAt <= :upTo " +
+            "ORDER BY i.updatedAt ASC, i.id ASC")
+    List<Item> findChangedByUserId(@Param("userId") Long userId,
+                                   @Param("afterTime") LocalDateTime afterTime,
+                                   @Param("afterId") Long afterId,
+                                   @Param("upTo") LocalDateTime upTo,
+                                   Pageable pageable);
+}
@@ -0,0 +1,33 @@
+package com.hyanhsing.hyanjot.repository;
+
+import com.hyanhsing.hyanjot.entity.ItemTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemTombstoneRepository extends JpaRepository<ItemTombstone, Long> {
+
+    /**
+     * 增量同步：水位之后、上界之前的删除记录，按 (deletedAt, id) 排序
+     */
+    @Query("SELECT t FROM ItemTombstone t WHERE t.userId = :userId " +
+            "AND (t.deletedAt > :afterTime OR (t.deletedAt = :afterTime AND t.id > :afterId)) " +
+            "AND t.deletedAt <= :upTo " +
+            "ORDER BY t.deletedAt ASC, t.id ASC")
+    List<ItemTombstone> findChangedByUserId(@Param("userId") Long userId,
+                                            @Param("afterTime") LocalDateTime afterTime,
+                                            @Param("afterId") Long afterId,
+                                            @Param("upTo") LocalDateTime upTo,
+                                            Pageable pageable);
+
+    // 清理超过保留期的墓碑
+    @Modifying
+    @Query("DELETE FROM ItemTombstone t WHERE t.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") LocalDateTime before);
+}
@@ -2,8 +2,12 @@ package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.ReminderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,53 @@ public interface ReminderItemRepository extends JpaRepository<ReminderItem, Long
      * 查找到期的提醒（用于定时任务）
      */
     List<ReminderItem> findByRemindTimeLessThanEqualAndNotifiedFalse(LocalDateTime now);
+
+    // ==================== 多实例认领（租约） ====================
+
+    /**
+     * 锁定一批可认领的到期提醒：未提醒、在horizon之前触发、没有租约或租约已过期
+     * SKIP LOCKED跳过其他节点正在认领的行，多个节点并发认领互不等待、不会重复
+     * 必须在事务中调用，随后用 lease 写入租约
+     */
+    @Query(value = "SELECT id FROM reminder_item " +
+            "WHERE notified = false AND fire_time <= :horizon " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "ORDER BY fire_time LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimable(@Param("horizon") LocalDateTime horizon,
+                             @Param("now") LocalDateTime now,
+                             @Param("limit") int limit);
+
+    /**
+     * 写入租约
+     */
+    @Modifying
+    @Query("UPDATE ReminderItem r SET r.leaseOwner = :owner, r.leaseExpiresAt = :expiresAt WHERE r.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * 连同Item一起取出已认领的提醒
+     */
+    @Query("SELECT r FROM ReminderItem r JOIN FETCH r.item WHERE r.id IN :ids ORDER BY r.fireTime ASC")
+    List<ReminderItem> findWithItemByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量标记已提醒（一条UPDATE ... WHERE id IN (...)）
+     * 只标记本节点持有租约的行；触发后被改到更晚时间的提醒不会被误标记
+     */
+    @Modifying
+    @Query("UPDATE ReminderItem r SET r.notified = true, r.leaseOwner = null, r.leaseExpiresAt = null " +
+            "WHERE r.id IN :ids AND r.leaseOwner = :owner AND r.notified = false AND r.fireTime <= :now")
+    int markNotified(@Param("ids") Collection<Long> ids,
+                     @Param("owner") String owner,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 释放本节点还没触发的租约（正常停机时调用，其他节点可以立即接管）
+     */
+    @Modifying
+    @Query("UPDATE ReminderItem r SET r.leaseOwner = null, r.leaseExpiresAt = null " +
+            "WHERE r.leaseOwner = :owner AND r.notified = false")
+    int releaseLeases(@Param("owner") String owner);
 }
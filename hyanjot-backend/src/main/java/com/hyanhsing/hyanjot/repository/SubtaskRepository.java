@@ -0,0 +1,48 @@
+package com.hyanhsing.hyanjot.repository;
+
+import com.hyanhsing.hyanjot.entity.Subtask;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubtaskRepository extends JpaRepository<Subtask, Long> {
+    // 某个TODO的全部子任务（按显示顺序）
+    List<Subtask> findByTodoIdOrderByPositionAscIdAsc(Long todoId);
+
+    // 多个TODO的子任务，一次IN查询（列表批量填充用）
+    List<Subtask> findByTodoIdInOrderByTodoIdAscPositionAscIdAsc(Collection<Long> todoIds);
+
+    // 按显示顺序取第N个子任务（兼容硬件端按下标操作），传 PageRequest.of(index, 1)
+    // 加行锁：两端同时切换同一子任务时计数不会算错
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Subtask s WHERE s.todoId = :todoId ORDER BY s.position ASC, s.id ASC")
+    List<Subtask> findAtIndex(@Param("todoId") Long todoId, Pageable pageable);
+
+    // 按ID查找并校验所属TODO（加行锁，同上）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Subtask> findByIdAndTodoId(Long id, Long todoId);
+
+    // 当前最大位置，新子任务追加到末尾
+    @Query("SELECT COALESCE(MAX(s.position), 0) FROM Subtask s WHERE s.todoId = :todoId")
+    int findMaxPosition(@Param("todoId") Long todoId);
+
+    // 删除TODO时一并删除子任务
+    @Modifying
+    @Query("DELETE FROM Subtask s WHERE s.todoId = :todoId")
+    int deleteByTodoId(@Param("todoId") Long todoId);
+
+    // 批量删除TODO时一次删掉所有子任务
+    @Modifying
+    @Query("DELETE FROM Subtask s WHERE s.todoId IN :todoIds")
+    int deleteByTodoIdIn(@Param("todoIds") Collection<Long> todoIds);
+}
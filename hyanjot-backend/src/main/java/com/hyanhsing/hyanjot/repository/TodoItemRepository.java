@@ -2,8 +2,37 @@ package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.TodoItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
+    /**
+     * 原子进度+1，不超过总进度（单条UPDATE，行锁保证多设备同时按键不丢更新）
+     * 返回受影响行数：0表示不存在、不是进度模式或没有设置总进度（LEAST遇到NULL会把当前进度清空）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET t.progressCurrent = LEAST(COALESCE(t.progressCurrent, 0) + 1, t.progressTotal) " +
+            "WHERE t.id = :id AND t.progressMode = true AND t.progressTotal IS NOT NULL")
+    int incrementProgress(@Param("id") Long id);
+
+    /**
+     * 原子进度-1，最小为0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET t.progressCurrent = GREATEST(COALESCE(t.progressCurrent, 0) - 1, 0) " +
+            "WHERE t.id = :id AND t.progressMode = true")
+    int decrementProgress(@Param("id") Long id);
+
+    /**
+     * 原子调整子任务计数（并发增删子任务时不会丢失计数）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET t.subtasksDone = COALESCE(t.subtasksDone, 0) + :doneDelta, " +
+            "t.subtasksTotal = COALESCE(t.subtasksTotal, 0) + :totalDelta WHERE t.id = :id")
+    int adjustSubtaskCounters(@Param("id") Long id,
+                              @Param("doneDelta") int doneDelta,
+                              @Param("totalDelta") int totalDelta);
 }
@@ -1,14 +1,21 @@
 package com.hyanhsing.hyanjot.repository;
 
 import com.hyanhsing.hyanjot.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    // 根据用户名查找用户（登录时用）
+    // 根据用户名查找用户（登录时用），结果缓存在查询缓存中，user表有写入时失效
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "lookup-query")
+    })
     Optional<User> findByUsername(String username);
 
     // 检查用户名是否存在
@@ -0,0 +1,202 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import com.hyanhsing.hyanjot.entity.ReminderItem;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.event.ReminderFiredEvent;
+import com.hyanhsing.hyanjot.service.ReminderClaimService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 提醒调度器
+ * 定期认领未来horizon秒内要触发的提醒并装入时间轮，到点（毫秒级）发布 ReminderFiredEvent，
+ * 已触发的提醒攒批后用一条 UPDATE ... WHERE id IN (...) 标记为已提醒；
+ * 重复提醒触发后推进到下一次出现（只更新这一行的nextRemindTime和fire_time，不预先生成多行）
+ * 多实例部署时每个节点只处理自己认领（持有租约）的提醒，见 ReminderClaimService
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hyanjot.reminder.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderDispatcher {
+
+    @Autowired
+    private ReminderClaimService reminderClaimService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 本节点ID（租约持有者），为空时自动生成
+     */
+    @Value("${hyanjot.reminder.node-id:}")
+    private String nodeId;
+
+    /**
+     * 每次预加载未来多少秒内的提醒
+     */
+    @Value("${hyanjot.reminder.horizon-seconds:60}")
+    private long horizonSeconds;
+
+    /**
+     * 每次预加载的最大条数
+     */
+    @Value("${hyanjot.reminder.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    /**
+     * 每条UPDATE最多标记的条数
+     */
+    @Value("${hyanjot.reminder.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /**
+     * 提醒时间所在时区（与数据库连接的serverTimezone一致），为空时使用系统时区
+     */
+    @Value("${hyanjot.reminder.zone:}")
+    private String zoneId;
+
+    private ZoneId zone;
+
+    /**
+     * 已装入时间轮、还没标记完成的提醒，避免重复装入
+     */
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已触发、等待批量标记的提醒
+     */
+    private final Queue<ReminderFiredEvent> fired = new ConcurrentLinkedQueue<>();
+
+    private ExecutorService fireExecutor;
+    private TimingWheelTimer timer;
+    private Thread driver;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        zone = zoneId.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+        if (nodeId.isEmpty()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        fireExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "reminder-fire"));
+        timer = new TimingWheelTimer(1, 64, fireExecutor);
+        running = true;
+        driver = new Thread(this::drive, "reminder-wheel");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        driver.interrupt();
+        fireExecutor.shutdown();
+        flushNotified();
+        // 还没触发的交给其他节点
+        reminderClaimService.releaseLeases(nodeId);
+    }
+
+    /**
+     * 认领并预加载即将到期的提醒
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.reminder.load-interval-ms:10000}")
+    public void loadDue() {
+        LocalDateTime horizon = LocalDateTime.now().plusSeconds(horizonSeconds);
+        List<ReminderItem> due = reminderClaimService.claimDue(nodeId, horizon, loadBatchSize);
+        for (ReminderItem reminder : due) {
+            if (!scheduled.add(reminder.getId())) {
+                continue;
+            }
+            ReminderFiredEvent event = new ReminderFiredEvent(
+                    reminder.getId(),
+                    reminder.getItem().getUserId(),
+                    reminder.getItem().getTitle(),
+                    reminder.currentOccurrence(),
+                    reminder.getFireTime(),
+                    reminder.getRepeatType());
+            timer.schedule(ReminderRecurrence.toEpochMilli(reminder.getFireTime(), zone), () -> fire(event));
+        }
+    }
+
+    /**
+     * 批量标记已触发的提醒，重复提醒推进到下一次
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.reminder.flush-interval-ms:1000}")
+    public void flushNotified() {
+        while (!fired.isEmpty()) {
+            List<Long> oneShot = new ArrayList<>();
+            List<Long> recurring = new ArrayList<>();
+            List<ReminderFiredEvent> batch = new ArrayList<>();
+            ReminderFiredEvent event;
+            while (batch.size() < flushBatchSize && (event = fired.poll()) != null) {
+                batch.add(event);
+                if (ReminderRecurrence.isRecurring(event.getRepeatType())) {
+                    recurring.add(event.getItemId());
+                } else {
+                    oneShot.add(event.getItemId());
+                }
+            }
+            try {
+                reminderClaimService.markNotified(nodeId, oneShot);
+                reminderClaimService.advanceRecurring(nodeId, recurring);
+                // 提醒状态已写库，通知客户端（推送、ETag版本）
+                for (ReminderFiredEvent done : batch) {
+                    eventPublisher.publishEvent(new ItemChangedEvent(
+                            done.getUserId(), done.getItemId(), "REMINDER", ItemChangedEvent.UPDATED));
+                }
+            } catch (RuntimeException e) {
+                // 标记失败的提醒租约过期后会被重新认领（至少触发一次）
+                log.warn("批量标记提醒失败: {} {}", oneShot, recurring, e);
+            }
+            scheduled.removeAll(oneShot);
+            scheduled.removeAll(recurring);
+        }
+    }
+
+    /**
+     * 时间轮中等待触发的提醒数
+     */
+    public int pendingCount() {
+        return timer.size();
+    }
+
+    private void fire(ReminderFiredEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("提醒事件处理失败: {}", event.getItemId(), e);
+        }
+        fired.add(event);
+    }
+
+    private void drive() {
+        while (running) {
+            try {
+                timer.advanceClock(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 重复提醒的日历计算
+ * 所有时间都是本地挂钟时间：每天9点提醒在夏令时切换后仍然是9点
+ * 第N次出现总是从锚点（首次提醒时间）直接计算，不在上一次的基础上累加，
+ * 因此每月31日的提醒在2月落到28/29日之后，3月仍然回到31日
+ */
+public final class ReminderRecurrence {
+
+    private ReminderRecurrence() {
+    }
+
+    /**
+     * 是否为重复提醒
+     */
+    public static boolean isRecurring(String repeatType) {
+        return "daily".equals(repeatType) || "weekly".equals(repeatType) || "monthly".equals(repeatType);
+    }
+
+    /**
+     * 锚点之后、严格晚于after的第一次出现；不是重复提醒时返回null
+     * 服务停机多天后恢复时直接跳到下一次，不会补发错过的每一次
+     */
+    public static LocalDateTime next(LocalDateTime anchor, String repeatType, LocalDateTime after) {
+        if (!isRecurring(repeatType)) {
+            return null;
+        }
+        if (anchor.isAfter(after)) {
+            return anchor;
+        }
+        // 完整周期数对应的那次出现一定不晚于after，往后最多再走一两步
+        long n = completedPeriods(anchor, repeatType, after);
+        LocalDateTime candidate = occurrence(anchor, repeatType, n);
+        while (!candidate.isAfter(after)) {
+            n++;
+            candidate = occurrence(anchor, repeatType, n);
+        }
+        return candidate;
+    }
+
+    /**
+     * 第n次出现（n=0即锚点）
+     */
+    public static LocalDateTime occurrence(LocalDateTime anchor, String repeatType, long n) {
+        switch (repeatType) {
+            case "daily":
+                return anchor.plusDays(n);
+            case "weekly":
+                return anchor.plusWeeks(n);
+            case "monthly":
+                // plusMonths在目标月份没有这一天时取月末
+                return anchor.plusMonths(n);
+            default:
+                throw new IllegalArgumentException("不支持的重复类型: " + repeatType);
+        }
+    }
+
+    /**
+     * 本地时间转为时间戳
+     * 夏令时开始时跳过的时间（如02:30不存在）顺延到跳变之后；
+     * 夏令时结束时重复的时间取第一次，保证只触发一次
+     */
+    public static long toEpochMilli(LocalDateTime time, ZoneId zone) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static long completedPeriods(LocalDateTime anchor, String repeatType, LocalDateTime after) {
+        switch (repeatType) {
+            case "daily":
+                return ChronoUnit.DAYS.between(anchor, after);
+            case "weekly":
+                return ChronoUnit.WEEKS.between(anchor, after);
+            default:
+                return ChronoUnit.MONTHS.between(anchor, after);
+        }
+    }
+}
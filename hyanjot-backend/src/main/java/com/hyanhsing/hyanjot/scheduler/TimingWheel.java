@@ -0,0 +1,165 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 第一层每格tickMs毫秒，共wheelSize格；超出本层范围的任务放到上一层（每格 = 下层一圈），
+ * 上层的格子到期后把任务重新放回下层，逐层降级直到精确到毫秒
+ * 只有非空的格子才会进入DelayQueue，驱动线程在没有任务到期时不会空转
+ * 非线程安全，由 {@link TimingWheelTimer} 加锁使用
+ */
+class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final Bucket[] buckets;
+    private final DelayQueue<Bucket> queue;
+    private long currentTime;
+    /**
+     * 上层时间轮，第一次有超出本层范围的任务时创建
+     * add()只在共享读锁下调用，可能有多个线程同时创建，用双重检查保证只创建一个
+     */
+    private volatile TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.queue = queue;
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.currentTime = startMs - (startMs % tickMs);
+    }
+
+    /**
+     * 放入任务，已到期（不足一格）返回false，由调用方立即执行
+     */
+    boolean add(Entry entry) {
+        long expiration = entry.expirationMs;
+        if (entry.isCancelled()) {
+            return true;
+        }
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tickMs;
+            Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(entry);
+            // 格子被复用时需要重新入队
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        return overflowWheel().add(entry);
+    }
+
+    private TimingWheel overflowWheel() {
+        TimingWheel wheel = overflowWheel;
+        if (wheel == null) {
+            synchronized (this) {
+                wheel = overflowWheel;
+                if (wheel == null) {
+                    wheel = new TimingWheel(interval, wheelSize, currentTime, queue);
+                    overflowWheel = wheel;
+                }
+            }
+        }
+        return wheel;
+    }
+
+    /**
+     * 推进时钟到timeMs（向下取整到格）
+     */
+    void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            TimingWheel wheel = overflowWheel;
+            if (wheel != null) {
+                wheel.advanceClock(currentTime);
+            }
+        }
+    }
+
+    /**
+     * 时间轮中的一个任务
+     */
+    static final class Entry {
+        final long expirationMs;
+        final Runnable task;
+        private volatile boolean cancelled;
+        private Entry next;
+
+        Entry(long expirationMs, Runnable task) {
+            this.expirationMs = expirationMs;
+            this.task = task;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * 一个格子：同一时间段到期的任务链表
+     */
+    static final class Bucket implements Delayed {
+        private final AtomicLong expiration = new AtomicLong(-1L);
+        private Entry head;
+
+        synchronized void add(Entry entry) {
+            entry.next = head;
+            head = entry;
+        }
+
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        /**
+         * 取出全部任务并重置格子，任务交给consumer重新放入时间轮（降级或执行）
+         */
+        void flush(Consumer<Entry> consumer) {
+            Entry entry;
+            synchronized (this) {
+                entry = head;
+                head = null;
+                expiration.set(-1L);
+            }
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                consumer.accept(entry);
+                entry = next;
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            long delayMs = Math.max(getExpiration() - System.currentTimeMillis(), 0);
+            return unit.convert(delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket) other).getExpiration());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于分层时间轮的定时器
+ * schedule可以从任意线程调用；需要一个线程循环调用 advanceClock 驱动时钟
+ * 到期任务交给taskExecutor执行，不占用驱动线程
+ */
+public class TimingWheelTimer {
+
+    private final DelayQueue<TimingWheel.Bucket> queue = new DelayQueue<>();
+    private final TimingWheel wheel;
+    private final Executor taskExecutor;
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param tickMs    第一层每格的毫秒数（1即毫秒级精度）
+     * @param wheelSize 每层格数
+     */
+    public TimingWheelTimer(long tickMs, int wheelSize, Executor taskExecutor) {
+        this.wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis(), queue);
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 在指定的时间点（epoch毫秒）执行任务，已过期的任务立即执行
+     * 返回的句柄可用于取消
+     */
+    public Cancellable schedule(long expirationMs, Runnable task) {
+        TimingWheel.Entry entry = new TimingWheel.Entry(expirationMs, task);
+        lock.readLock().lock();
+        try {
+            addOrRun(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry::cancel;
+    }
+
+    /**
+     * 等待最多timeoutMs，推进时钟并处理所有到期的格子
+     * 返回是否处理了格子
+     */
+    public boolean advanceClock(long timeoutMs) throws InterruptedException {
+        TimingWheel.Bucket bucket = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            while (bucket != null) {
+                wheel.advanceClock(bucket.getExpiration());
+                bucket.flush(entry -> {
+                    size.decrementAndGet();
+                    addOrRun(entry);
+                });
+                bucket = queue.poll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * 时间轮中等待的任务数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void addOrRun(TimingWheel.Entry entry) {
+        if (wheel.add(entry)) {
+            if (!entry.isCancelled()) {
+                size.incrementAndGet();
+            }
+        } else if (!entry.isCancelled()) {
+            taskExecutor.execute(entry.task);
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public interface Cancellable {
+        void cancel();
+    }
+}
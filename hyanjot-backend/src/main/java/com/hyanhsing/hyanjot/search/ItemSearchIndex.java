@@ -0,0 +1,345 @@
+package com.hyanhsing.hyanjot.search;
+
+import com.hyanhsing.hyanjot.datasource.RoutingContext;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.Subtask;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.SubtaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 备忘项全文搜索：按用户划分的内存倒排索引（标题、内容、子任务文本）
+ *
+ * 词 -> (备忘项ID -> 命中字段)，分词见SearchTokenizer
+ * 查询只访问查询词对应的倒排表并求交集，耗时与命中数有关，与用户的备忘项总数无关
+ *
+ * 备忘项变更提交后登记ID，由单独的索引线程批量从数据库重新读取并替换该项的词；
+ * 启动时同一个线程分批从数据库重建全部索引。所有写入都在这一个线程里按顺序执行，
+ * 每个任务写入的都是它读取时数据库的最新状态，后执行的任务不会被先读到的旧数据覆盖
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    /**
+     * 命中字段：标题
+     */
+    static final int FIELD_TITLE = 1;
+
+    /**
+     * 命中字段：内容或子任务
+     */
+    static final int FIELD_BODY = 2;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Value("${hyanjot.search.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 重建和增量更新时每批从数据库读取的备忘项数
+     */
+    @Value("${hyanjot.search.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+
+    /**
+     * 待重新索引的备忘项：ID -> 用户ID（删除后数据库里查不到，需要知道从哪个用户的索引里移除）
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private ExecutorService indexer;
+
+    /**
+     * 启动时的重建是否已完成，完成前的搜索结果可能不全
+     */
+    private volatile boolean ready;
+
+    @PostConstruct
+    void start() {
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            indexer.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        indexer.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled || event.getItemId() == null) {
+            return;
+        }
+        // 同一项在处理前多次变化只登记一次
+        if (pending.put(event.getItemId(), event.getUserId()) == null) {
+            indexer.execute(this::drainPending);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 搜索用户的备忘项，多个查询词之间为"且"
+     * 按得分（标题命中记2分、内容/子任务命中记1分）降序，同分时新建的在前
+     */
+    public List<Long> search(Long userId, String query, int limit) {
+        List<SearchTokenizer.QueryToken> tokens = SearchTokenizer.queryTokens(query);
+        UserIndex index = users.get(userId);
+        if (tokens.isEmpty() || index == null) {
+            return new ArrayList<>();
+        }
+        Map<Long, Integer> scores;
+        index.lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> matches = new ArrayList<>(tokens.size());
+            for (SearchTokenizer.QueryToken token : tokens) {
+                Map<Long, Integer> match = index.match(token);
+                if (match.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                matches.add(match);
+            }
+            // 从最短的倒排表开始求交集
+            matches.sort(Comparator.comparingInt(Map::size));
+            scores = new HashMap<>();
+            for (Map.Entry<Long, Integer> entry : matches.get(0).entrySet()) {
+                scores.put(entry.getKey(), score(entry.getValue()));
+            }
+            for (int i = 1; i < matches.size() && !scores.isEmpty(); i++) {
+                Map<Long, Integer> match = matches.get(i);
+                scores.entrySet().removeIf(entry -> !match.containsKey(entry.getKey()));
+                scores.replaceAll((id, score) -> score + score(match.get(id)));
+            }
+        } finally {
+            index.lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * 等待已登记的索引任务执行完（测试用）
+     */
+    public void awaitIndexed(long timeoutMs) throws Exception {
+        Future<?> marker = indexer.submit(() -> {
+        });
+        marker.get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static int score(int fields) {
+        return ((fields & FIELD_TITLE) != 0 ? 2 : 0) + ((fields & FIELD_BODY) != 0 ? 1 : 0);
+    }
+
+    /**
+     * 启动时按ID分批读取全部备忘项建立索引
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int total = 0;
+        try {
+            while (true) {
+                List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(batchSize));
+                if (items.isEmpty()) {
+                    break;
+                }
+                index(items);
+                total += items.size();
+                afterId = items.get(items.size() - 1).getId();
+            }
+            ready = true;
+            log.info("搜索索引重建完成: {}项, {}ms", total, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("搜索索引重建失败，已索引{}项", total, e);
+        }
+    }
+
+    /**
+     * 取出登记的备忘项，按批从数据库读取当前状态替换索引；已删除的从索引中移除
+     * 刚提交的变更在副本上可能还看不到，固定从主库读
+     */
+    private void drainPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long itemId : new ArrayList<>(pending.keySet())) {
+            Long userId = pending.remove(itemId);
+            if (userId != null) {
+                batch.put(itemId, userId);
+            }
+            if (batch.size() >= batchSize) {
+                RoutingContext.runOnPrimary(() -> reindex(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            RoutingContext.runOnPrimary(() -> reindex(batch));
+        }
+    }
+
+    private void reindex(Map<Long, Long> batch) {
+        try {
+            List<Item> items = itemRepository.findAllById(batch.keySet());
+            Set<Long> found = new HashSet<>();
+            for (Item item : items) {
+                found.add(item.getId());
+            }
+            batch.forEach((itemId, userId) -> {
+                if (!found.contains(itemId) && userId != null) {
+                    UserIndex index = users.get(userId);
+                    if (index != null) {
+                        index.remove(itemId);
+                    }
+                }
+            });
+            index(items);
+        } catch (RuntimeException e) {
+            // 放回去等下一次变更时重试
+            batch.forEach(pending::putIfAbsent);
+            log.warn("更新搜索索引失败: {}项", batch.size(), e);
+        }
+    }
+
+    private void index(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Long> todoIds = new ArrayList<>();
+        for (Item item : items) {
+            if ("TODO".equals(item.getType())) {
+                todoIds.add(item.getId());
+            }
+        }
+        Map<Long, List<String>> subtaskTexts = new HashMap<>();
+        if (!todoIds.isEmpty()) {
+            for (Subtask subtask : subtaskRepository.findByTodoIdInOrderByTodoIdAscPositionAscIdAsc(todoIds)) {
+                subtaskTexts.computeIfAbsent(subtask.getTodoId(), k -> new ArrayList<>()).add(subtask.getText());
+            }
+        }
+        for (Item item : items) {
+            Map<String, Integer> fields = new HashMap<>();
+            for (String token : SearchTokenizer.indexTokens(item.getTitle())) {
+                fields.merge(token, FIELD_TITLE, (a, b) -> a | b);
+            }
+            for (String token : SearchTokenizer.indexTokens(item.getContent())) {
+                fields.merge(token, FIELD_BODY, (a, b) -> a | b);
+            }
+            for (String text : subtaskTexts.getOrDefault(item.getId(), List.of())) {
+                for (String token : SearchTokenizer.indexTokens(text)) {
+                    fields.merge(token, FIELD_BODY, (a, b) -> a | b);
+                }
+            }
+            users.computeIfAbsent(item.getUserId(), id -> new UserIndex()).put(item.getId(), fields);
+        }
+    }
+
+    /**
+     * 一个用户的倒排索引
+     * 词表用TreeMap，字母数字词的前缀查询是一段连续的范围
+     */
+    private static class UserIndex {
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Collection<String>> tokensByItem = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(Long itemId, Map<String, Integer> fields) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(itemId);
+                for (Map.Entry<String, Integer> entry : fields.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(itemId, entry.getValue());
+                }
+                tokensByItem.put(itemId, new ArrayList<>(fields.keySet()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long itemId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long itemId) {
+            Collection<String> tokens = tokensByItem.remove(itemId);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens) {
+                Map<Long, Integer> posting = postings.get(token);
+                if (posting != null) {
+                    posting.remove(itemId);
+                    if (posting.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 查询词命中的备忘项 -> 命中字段，需持有读锁
+         */
+        Map<Long, Integer> match(SearchTokenizer.QueryToken token) {
+            if (!token.isPrefix()) {
+                return postings.getOrDefault(token.getText(), Map.of());
+            }
+            Map<String, Map<Long, Integer>> range = postings.subMap(token.getText(), true, token.getText() + Character.MAX_VALUE, false);
+            if (range.size() == 1) {
+                return range.values().iterator().next();
+            }
+            Map<Long, Integer> merged = new HashMap<>();
+            for (Map<Long, Integer> posting : range.values()) {
+                posting.forEach((id, fields) -> merged.merge(id, fields, (a, b) -> a | b));
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.hyanhsing.hyanjot.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 搜索分词：不依赖词典
+ *
+ * 先做NFKC归一化并转小写（全角字母数字转半角）
+ * 字母数字连续的一段作为一个词；中日韩文字按单字和相邻两字（二元组）切分，
+ * 例如"买牛奶"切成 买、牛、奶、买牛、牛奶
+ * 查询时中日韩文字只用二元组（单个字时用单字），字母数字词按前缀匹配
+ */
+public final class SearchTokenizer {
+
+    /**
+     * 单个词的最大长度，更长的截断
+     */
+    static final int MAX_WORD_LENGTH = 32;
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 建索引用：返回去重后的词
+     */
+    public static Set<String> indexTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Run run : runs(text)) {
+            if (run.cjk) {
+                int[] cps = run.text.codePoints().toArray();
+                for (int i = 0; i < cps.length; i++) {
+                    tokens.add(new String(cps, i, 1));
+                    if (i + 1 < cps.length) {
+                        tokens.add(new String(cps, i, 2));
+                    }
+                }
+            } else {
+                tokens.add(run.text);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 查询用：返回去重后的查询词，prefix表示按前缀匹配
+     */
+    public static List<QueryToken> queryTokens(String query) {
+        Set<QueryToken> tokens = new LinkedHashSet<>();
+        for (Run run : runs(query)) {
+            if (run.cjk) {
+                int[] cps = run.text.codePoints().toArray();
+                if (cps.length == 1) {
+                    tokens.add(new QueryToken(run.text, false));
+                }
+                for (int i = 0; i + 1 < cps.length; i++) {
+                    tokens.add(new QueryToken(new String(cps, i, 2), false));
+                }
+            } else {
+                tokens.add(new QueryToken(run.text, true));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 按文字类别切成连续的段：中日韩文字段、字母数字段，其他字符作为分隔
+     */
+    private static List<Run> runs(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            boolean cjk = isCjk(cp);
+            boolean word = !cjk && Character.isLetterOrDigit(cp);
+            if ((!cjk && !word) || (current.length() > 0 && cjk != currentCjk)) {
+                flush(runs, current, currentCjk);
+            }
+            if (cjk || word) {
+                current.appendCodePoint(cp);
+                currentCjk = cjk;
+            }
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() == 0) {
+            return;
+        }
+        String text = current.toString();
+        if (!cjk && text.length() > MAX_WORD_LENGTH) {
+            text = text.substring(0, MAX_WORD_LENGTH);
+        }
+        runs.add(new Run(text, cjk));
+        current.setLength(0);
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @AllArgsConstructor
+    private static class Run {
+        private final String text;
+        private final boolean cjk;
+    }
+
+    /**
+     * 查询词
+     */
+    @Data
+    @AllArgsConstructor
+    public static class QueryToken {
+        private final String text;
+        /**
+         * 按前缀匹配（字母数字词）
+         */
+        private final boolean prefix;
+    }
+}
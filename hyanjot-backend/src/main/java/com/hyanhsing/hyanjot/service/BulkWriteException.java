@@ -0,0 +1,25 @@
+package com.hyanhsing.hyanjot.service;
+
+import lombok.Getter;
+
+/**
+ * 批量写入中途失败：committed之前的行已经分块提交，不会回滚
+ * cause保留原始异常，调用方据此区分请求数据有误（400）还是服务端错误（500）
+ */
+@Getter
+public class BulkWriteException extends RuntimeException {
+
+    private final int committed;
+
+    public BulkWriteException(int committed, RuntimeException cause) {
+        super("批量写入失败，前" + committed + "条已提交: " + cause.getMessage(), cause);
+        this.committed = committed;
+    }
+
+    /**
+     * 数据校验失败（IllegalArgumentException，或Objects.requireNonNull的必填字段检查）
+     */
+    public boolean isInvalidRequest() {
+        return getCause() instanceof IllegalArgumentException || getCause() instanceof NullPointerException;
+    }
+}
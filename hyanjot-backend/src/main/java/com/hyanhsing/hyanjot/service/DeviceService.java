@@ -14,9 +14,12 @@ public interface DeviceService {
     // 获取用户的所有设备
     List<Device> findByUserId(Long userId);
 
-    // 更新设备最后在线时间
+    // 更新设备最后在线时间（先记在内存，定时批量写库）
     void updateLastOnline(Long deviceId);
 
+    // 把内存中的最后在线时间批量写库，返回写入条数
+    int flushLastOnline();
+
     // 删除设备
     void deleteDevice(Long id);
 }
\ No newline at end of file
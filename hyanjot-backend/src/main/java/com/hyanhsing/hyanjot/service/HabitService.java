@@ -0,0 +1,43 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.HabitStats;
+import com.hyanhsing.hyanjot.entity.HabitCheckYear;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * HABIT类型备忘项的专用服务
+ */
+public interface HabitService {
+    /**
+     * 打卡（置位当天），已打卡时不变
+     */
+    HabitStats checkIn(Long itemId, LocalDate date);
+
+    /**
+     * 取消打卡（清除当天的位）
+     */
+    HabitStats undoCheckIn(Long itemId, LocalDate date);
+
+    /**
+     * 连续天数、最长连续天数等统计
+     */
+    HabitStats getStats(Long itemId);
+
+    /**
+     * 获取某一年的打卡位图（没有记录时返回全0位图）
+     */
+    HabitCheckYear getYear(Long itemId, int year);
+
+    /**
+     * 需要迁移的旧JSON打卡历史的习惯ID
+     */
+    List<Long> findIdsWithCheckHistory();
+
+    /**
+     * 把一个习惯的JSON打卡历史迁移到位图，完成后清空check_history
+     * @return 迁移的打卡天数
+     */
+    int migrateCheckHistory(Long itemId);
+}
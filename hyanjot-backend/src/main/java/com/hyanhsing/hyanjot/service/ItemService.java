@@ -1,5 +1,7 @@
 package com.hyanhsing.hyanjot.service;
 
+import com.hyanhsing.hyanjot.dto.CursorPage;
+import com.hyanhsing.hyanjot.dto.ItemChanges;
 import com.hyanhsing.hyanjot.entity.Item;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,10 @@ public interface ItemService {
     // 根据ID查找完整信息（包含子表数据）
     Optional<Item> findByIdWithDetails(Long id);
 
+    // 批量查找完整信息（每种子表一次IN查询，与数量无关）
+    // includeSubtasks=false时TODO只返回子任务计数，不加载子任务列表
+    List<Item> findByIdsWithDetails(List<Long> ids, boolean includeSubtasks);
+
     // 获取用户的所有备忘项
     List<Item> findByUserId(Long userId);
 
@@ -23,12 +29,45 @@ public interface ItemService {
     // 根据状态查找
     List<Item> findByUserIdAndStatus(Long userId, String status);
 
+    // 游标分页获取用户的备忘项（cursor为空表示第一页，size为空使用默认页大小）
+    CursorPage<Item> findPageByUserId(Long userId, String cursor, Integer size);
+
+    // 游标分页按类型查找
+    CursorPage<Item> findPageByUserIdAndType(Long userId, String type, String cursor, Integer size);
+
+    // 游标分页按状态查找
+    CursorPage<Item> findPageByUserIdAndStatus(Long userId, String status, String cursor, Integer size);
+
+    // 游标分页获取用户的备忘项（包含子表数据）
+    CursorPage<Item> findPageByUserIdWithDetails(Long userId, String cursor, Integer size, boolean includeSubtasks);
+
+    // 增量同步：水位之后新增、修改（包含子表数据）和删除的备忘项，since为空时返回全部
+    ItemChanges findChanges(Long userId, String since, Integer size, boolean includeSubtasks);
+
+    // 全文搜索标题、内容和子任务，按相关度排序（包含子表数据，TODO只返回子任务计数）
+    List<Item> search(Long userId, String query, Integer size);
+
+    // 清理超过保留期的墓碑
+    int purgeTombstones();
+
     // 更新备忘项
     Item updateItem(Item item);
 
     // 删除备忘项
     void deleteItem(Long id);
 
+    // 批量创建，按块分事务提交，返回新ID（顺序与请求一致）
+    List<Long> createItems(List<Item> items);
+
+    // 批量更新（只更新非空字段，不存在的ID跳过），返回实际更新的条数
+    int updateItems(List<Item> items);
+
+    // 批量删除（不存在的ID跳过），返回实际删除的条数
+    int deleteItems(List<Long> ids);
+
+    // 拖动排序：把备忘项移到afterId和beforeId之间（afterId为空表示移到最前，beforeId为空表示移到最后）
+    Item moveItem(Long id, Long afterId, Long beforeId);
+
     // 完成/激活备忘项（切换状态）
     Item toggleStatus(Long id);
 }
\ No newline at end of file
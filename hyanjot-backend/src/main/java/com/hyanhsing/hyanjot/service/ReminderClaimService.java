@@ -0,0 +1,32 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.entity.ReminderItem;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 提醒认领服务（多实例部署时各节点分摊到期提醒，不依赖外部协调者）
+ */
+public interface ReminderClaimService {
+    /**
+     * 认领一批horizon之前要触发的提醒，租约期内其他节点不会再认领
+     */
+    List<ReminderItem> claimDue(String nodeId, LocalDateTime horizon, int limit);
+
+    /**
+     * 标记已提醒并结束租约，返回实际标记的条数
+     */
+    int markNotified(String nodeId, Collection<Long> ids);
+
+    /**
+     * 重复提醒触发后推进到下一次（更新nextRemindTime和fire_time，结束租约，保持未提醒）
+     * 返回实际推进的条数
+     */
+    int advanceRecurring(String nodeId, Collection<Long> ids);
+
+    /**
+     * 释放本节点还没触发的租约
+     */
+    int releaseLeases(String nodeId);
+}
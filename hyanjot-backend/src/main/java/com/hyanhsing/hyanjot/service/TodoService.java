@@ -3,6 +3,8 @@ package com.hyanhsing.hyanjot.service;
 import com.hyanhsing.hyanjot.entity.Item;
 import com.hyanhsing.hyanjot.entity.TodoItem;
 
+import java.util.List;
+
 /**
  * TODO类型备忘项的专用服务
  */
@@ -12,6 +14,11 @@ public interface TodoService {
      */
     Item createTodo(com.hyanhsing.hyanjot.dto.TodoCreateDTO dto);
 
+    /**
+     * 批量创建TODO（按块分事务提交），返回新ID（顺序与请求一致）
+     */
+    List<Long> createTodos(List<com.hyanhsing.hyanjot.dto.TodoCreateDTO> dtos);
+
     /**
      * 更新TODO（更新Item + TodoItem）
      */
@@ -52,6 +59,26 @@ public interface TodoService {
      */
     TodoItem deleteSubtask(Long itemId, Integer index);
 
+    /**
+     * 获取TODO及其子任务
+     */
+    TodoItem getTodoWithSubtasks(Long itemId);
+
+    /**
+     * 按子任务ID切换完成状态（ID稳定，多端同时编辑不会错位）
+     */
+    TodoItem toggleSubtaskById(Long itemId, Long subtaskId);
+
+    /**
+     * 按子任务ID更新文本
+     */
+    TodoItem updateSubtaskById(Long itemId, Long subtaskId, String text);
+
+    /**
+     * 按子任务ID删除
+     */
+    TodoItem deleteSubtaskById(Long itemId, Long subtaskId);
+
     /**
      * 检查并更新完成状态
      * 进度模式：如果progressCurrent >= progressTotal，标记完成
@@ -0,0 +1,71 @@
+package com.hyanhsing.hyanjot.service.impl;
+
+import com.hyanhsing.hyanjot.service.BulkWriteException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 批量写入：按块分事务执行，每块结束时flush并清空持久化上下文
+ *
+ * 配合号段ID和hibernate.jdbc.batch_size，一块内同一张表的INSERT/UPDATE合并成几次批量执行；
+ * 清空上下文保证一万行的导入不会让会话里堆积一万个实体
+ * 每块单独提交，中途失败时之前的块已经生效，抛出的BulkWriteException带上已提交的条数和原始异常
+ */
+@Component
+public class ChunkedWriter {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 每个事务处理多少条
+     */
+    @Value("${hyanjot.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 单次请求最多多少条
+     */
+    @Value("${hyanjot.bulk.max-size:10000}")
+    private int maxSize;
+
+    /**
+     * 逐块执行writer，返回值按顺序拼接
+     */
+    public <T, R> List<R> write(List<T> rows, Function<List<T>, List<R>> writer) {
+        Objects.requireNonNull(rows, "批量数据不能为空");
+        if (rows.size() > maxSize) {
+            throw new IllegalArgumentException("一次最多批量处理" + maxSize + "条");
+        }
+        List<R> results = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            try {
+                List<R> written = transactionTemplate.execute(status -> {
+                    List<R> result = writer.apply(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    return result;
+                });
+                if (written != null) {
+                    results.addAll(written);
+                }
+            } catch (RuntimeException e) {
+                throw new BulkWriteException(from, e);
+            }
+        }
+        return results;
+    }
+}
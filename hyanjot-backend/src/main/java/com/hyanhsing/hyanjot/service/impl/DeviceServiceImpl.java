@@ -1,34 +1,92 @@
 package com.hyanhsing.hyanjot.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hyanhsing.hyanjot.entity.Device;
+import com.hyanhsing.hyanjot.event.DeviceChangedEvent;
 import com.hyanhsing.hyanjot.repository.DeviceRepository;
 import com.hyanhsing.hyanjot.service.DeviceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 public class DeviceServiceImpl implements DeviceService {
 
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${hyanjot.device.token-cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    @Value("${hyanjot.device.token-cache.ttl-seconds:300}")
+    private long tokenCacheTtlSeconds;
+
+    /**
+     * Token -> 设备，硬件端每次轮询都要认证，命中时不查库
+     * 未注册的Token也缓存（Optional.empty()），避免无效Token反复打到数据库；注册、删除的事务提交后失效
+     */
+    private Cache<String, Optional<Device>> tokenCache;
+
+    /**
+     * 待写入的最后在线时间：设备ID -> 时间，定时批量写库，同一设备多次心跳只写最后一次
+     */
+    private final Map<Long, LocalDateTime> pendingLastOnline = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initTokenCache() {
+        tokenCache = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(tokenCacheTtlSeconds))
+                .build();
+    }
+
     @Override
     public Device registerDevice(Device device) {
         // 设置默认状态
         if (device.getStatus() == null) {
             device.setStatus(1);
         }
-        return deviceRepository.save(device);
+        Device saved = deviceRepository.save(device);
+        eventPublisher.publishEvent(new DeviceChangedEvent(saved.getId(), saved.getDeviceToken()));
+        return saved;
     }
 
     @Override
     public Optional<Device> findByDeviceToken(String deviceToken) {
-        return deviceRepository.findByDeviceToken(deviceToken);
+        if (deviceToken == null) {
+            return Optional.empty();
+        }
+        return tokenCache.get(deviceToken, deviceRepository::findByDeviceToken);
     }
 
     @Override
@@ -36,18 +94,68 @@ public class DeviceServiceImpl implements DeviceService {
         return deviceRepository.findByUserId(userId);
     }
 
+    /**
+     * 只记在内存里，由flushLastOnline批量写库
+     */
     @Override
     public void updateLastOnline(Long deviceId) {
         Objects.requireNonNull(deviceId, "设备ID不能为空");
-        Device device = deviceRepository.findById(deviceId)
-                .orElseThrow(() -> new RuntimeException("设备不存在"));
-        device.setLastOnline(LocalDateTime.now());
-        deviceRepository.save(device);
+        pendingLastOnline.put(deviceId, LocalDateTime.now());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${hyanjot.device.last-online-flush-ms:5000}")
+    public int flushLastOnline() {
+        if (pendingLastOnline.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long deviceId : new ArrayList<>(pendingLastOnline.keySet())) {
+            LocalDateTime time = pendingLastOnline.remove(deviceId);
+            if (time != null) {
+                batch.add(new Object[]{Timestamp.valueOf(time), deviceId});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate("UPDATE device SET last_online = ? WHERE id = ?", batch);
+        } catch (RuntimeException e) {
+            // 写库失败放回队列，下次重试；期间有更新的心跳则保留更新的
+            for (Object[] row : batch) {
+                pendingLastOnline.merge((Long) row[1], ((Timestamp) row[0]).toLocalDateTime(),
+                        (newer, failed) -> newer);
+            }
+            log.warn("批量更新设备在线时间失败: {}条", batch.size(), e);
+            return 0;
+        }
+        // 直接写库绕过了Hibernate，二级缓存里的设备需要手动失效，否则读到旧的在线时间
+        for (Object[] row : batch) {
+            entityManagerFactory.getCache().evict(Device.class, row[1]);
+        }
+        return batch.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLastOnline();
     }
 
     @Override
+    @Transactional
     public void deleteDevice(Long id) {
         Objects.requireNonNull(id, "设备ID不能为空");
-        deviceRepository.deleteById(id);
+        pendingLastOnline.remove(id);
+        deviceRepository.findById(id).ifPresent(device -> {
+            deviceRepository.delete(device);
+            eventPublisher.publishEvent(new DeviceChangedEvent(device.getId(), device.getDeviceToken()));
+        });
+    }
+
+    /**
+     * 提交后再失效：提交前到达的认证请求读到的还是旧数据，如果先失效，它会把已删除的设备重新放回缓存，
+     * 在TTL内一直能认证通过；提交后失效时，正在加载的同一个Token会等加载完成再被删除
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        tokenCache.invalidate(event.getDeviceToken());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,302 @@
+package com.hyanhsing.hyanjot.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyanhsing.hyanjot.dto.HabitStats;
+import com.hyanhsing.hyanjot.entity.HabitCheckYear;
+import com.hyanhsing.hyanjot.entity.HabitItem;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.repository.HabitCheckYearRepository;
+import com.hyanhsing.hyanjot.repository.HabitItemRepository;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.service.HabitService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+public class HabitServiceImpl implements HabitService {
+
+    @Autowired
+    private HabitItemRepository habitItemRepository;
+
+    @Autowired
+    private HabitCheckYearRepository habitCheckYearRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public HabitStats checkIn(Long itemId, LocalDate date) {
+        return setChecked(itemId, date, true);
+    }
+
+    @Override
+    @Transactional
+    public HabitStats undoCheckIn(Long itemId, LocalDate date) {
+        return setChecked(itemId, date, false);
+    }
+
+    /**
+     * 只读事务（可能走副本）不做迁移：还没迁移的旧打卡历史只在内存里合并进位图参与统计，
+     * 下一次打卡或迁移任务时才落库
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public HabitStats getStats(Long itemId) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        HabitItem habit = habitItemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("习惯不存在"));
+        return computeStats(itemId, loadYears(habit), LocalDate.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public HabitCheckYear getYear(Long itemId, int year) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        HabitItem habit = habitItemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("习惯不存在"));
+        if (habit.getCheckHistory() != null) {
+            return yearOf(itemId, loadYears(habit), year);
+        }
+        return habitCheckYearRepository.findByHabitIdAndCheckYear(itemId, year)
+                .orElseGet(() -> new HabitCheckYear(itemId, year));
+    }
+
+    @Override
+    public List<Long> findIdsWithCheckHistory() {
+        return habitItemRepository.findIdsWithCheckHistory();
+    }
+
+    @Override
+    @Transactional
+    public int migrateCheckHistory(Long itemId) {
+        HabitItem habit = habitItemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new RuntimeException("习惯不存在"));
+        if (habit.getCheckHistory() == null) {
+            return 0;
+        }
+        List<HabitCheckYear> years = habitCheckYearRepository.findByHabitIdOrderByCheckYearAsc(itemId);
+        int migrated = mergeCheckHistory(habit, years);
+        habitCheckYearRepository.saveAll(years);
+        habit.setCheckHistory(null);
+        applyStats(habit, computeStats(itemId, years, LocalDate.now()));
+        return migrated;
+    }
+
+    /**
+     * 打卡/取消打卡：先锁习惯行串行化，再只翻转当天的一位
+     * 当年的位图行不存在时在锁内插入，不会和并发打卡撞唯一键
+     * 迁移任务默认不开启，还留着旧JSON打卡历史的习惯在这里顺带迁移，否则冗余的连续天数会按空位图重算
+     */
+    private HabitStats setChecked(Long itemId, LocalDate date, boolean checked) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        LocalDate today = LocalDate.now();
+        LocalDate day = date != null ? date : today;
+        if (day.isAfter(today)) {
+            throw new RuntimeException("不能为未来的日期打卡");
+        }
+        HabitItem habit = habitItemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new RuntimeException("习惯不存在"));
+        List<HabitCheckYear> years = habitCheckYearRepository.findByHabitIdOrderByCheckYearAsc(itemId);
+        if (habit.getCheckHistory() != null) {
+            mergeCheckHistory(habit, years);
+            habit.setCheckHistory(null);
+            habitCheckYearRepository.saveAll(years);
+        }
+        HabitCheckYear year = yearOf(itemId, years, day.getYear());
+        if (year.setChecked(day, checked)) {
+            habitCheckYearRepository.save(year);
+        }
+        HabitStats stats = computeStats(itemId, years, today);
+        applyStats(habit, stats);
+        itemRepository.touch(List.of(itemId), LocalDateTime.now());
+        eventPublisher.publishEvent(ItemChangedEvent.of(habit.getItem(), ItemChangedEvent.UPDATED));
+        return stats;
+    }
+
+    /**
+     * 读出位图，check_history还没迁移时把旧打卡历史合并进去（只改内存，不保存）
+     */
+    private List<HabitCheckYear> loadYears(HabitItem habit) {
+        List<HabitCheckYear> years = habitCheckYearRepository.findByHabitIdOrderByCheckYearAsc(habit.getId());
+        if (habit.getCheckHistory() != null) {
+            mergeCheckHistory(habit, years);
+        }
+        return years;
+    }
+
+    /**
+     * 把check_history里的日期置位到years（缺的年份会插入新行），返回新置位的天数
+     */
+    private int mergeCheckHistory(HabitItem habit, List<HabitCheckYear> years) {
+        int merged = 0;
+        for (LocalDate date : parseCheckHistory(habit.getId(), habit.getCheckHistory())) {
+            if (yearOf(habit.getId(), years, date.getYear()).setChecked(date, true)) {
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 连续天数和最后打卡日期仍然冗余在habit_item上，供列表直接显示
+     */
+    private void applyStats(HabitItem habit, HabitStats stats) {
+        habit.setStreakDays(stats.getStreakDays());
+        habit.setLastCheckDate(stats.getLastCheckDate());
+    }
+
+    /**
+     * 在已按年份排序的列表里找某一年，没有就新建并插入到对应位置
+     */
+    private HabitCheckYear yearOf(Long itemId, List<HabitCheckYear> years, int year) {
+        int i = 0;
+        while (i < years.size() && years.get(i).getCheckYear() < year) {
+            i++;
+        }
+        if (i < years.size() && years.get(i).getCheckYear() == year) {
+            return years.get(i);
+        }
+        HabitCheckYear created = new HabitCheckYear(itemId, year);
+        years.add(i, created);
+        return created;
+    }
+
+    /**
+     * 扫描位图得出统计，years需按年份升序
+     * 最长连续：逐年找连续的1，上一年以12月31日结尾的连续段会接到下一年1月1日
+     * 当前连续：从今天（未打卡则从昨天）往前找第一个0，跨年时接着扫上一年
+     */
+    static HabitStats computeStats(Long habitId, List<HabitCheckYear> years, LocalDate today) {
+        int longest = 0;
+        int total = 0;
+        int carry = 0;
+        Integer prevYear = null;
+        for (HabitCheckYear year : years) {
+            int y = year.getCheckYear();
+            if (prevYear == null || y != prevYear + 1) {
+                carry = 0;
+            }
+            int len = Year.of(y).length();
+            BitSet bits = BitSet.valueOf(year.getDays());
+            int endRun = 0;
+            int i = bits.nextSetBit(0);
+            while (i >= 0 && i < len) {
+                int j = Math.min(bits.nextClearBit(i), len);
+                int run = j - i + (i == 0 ? carry : 0);
+                longest = Math.max(longest, run);
+                total += j - i;
+                if (j == len) {
+                    endRun = run;
+                }
+                i = bits.nextSetBit(j);
+            }
+            carry = endRun;
+            prevYear = y;
+        }
+
+        List<HabitCheckYear> descending = new ArrayList<>(years);
+        descending.sort(Comparator.comparing(HabitCheckYear::getCheckYear).reversed());
+
+        LocalDate lastCheckDate = null;
+        for (HabitCheckYear year : descending) {
+            BitSet bits = BitSet.valueOf(year.getDays());
+            int last = bits.previousSetBit(Year.of(year.getCheckYear()).length() - 1);
+            if (last >= 0) {
+                lastCheckDate = Year.of(year.getCheckYear()).atDay(last + 1);
+                break;
+            }
+        }
+
+        int streak = 0;
+        LocalDate cursor = isChecked(descending, today) ? today : today.minusDays(1);
+        while (true) {
+            HabitCheckYear year = find(descending, cursor.getYear());
+            if (year == null) {
+                break;
+            }
+            BitSet bits = BitSet.valueOf(year.getDays());
+            int index = cursor.getDayOfYear() - 1;
+            if (!bits.get(index)) {
+                break;
+            }
+            int zero = bits.previousClearBit(index);
+            streak += index - zero;
+            if (zero >= 0) {
+                break;
+            }
+            cursor = LocalDate.of(cursor.getYear() - 1, 12, 31);
+        }
+
+        return new HabitStats(habitId, streak, longest, total, lastCheckDate);
+    }
+
+    private static boolean isChecked(List<HabitCheckYear> years, LocalDate date) {
+        HabitCheckYear year = find(years, date.getYear());
+        return year != null && year.isChecked(date);
+    }
+
+    private static HabitCheckYear find(List<HabitCheckYear> years, int year) {
+        for (HabitCheckYear y : years) {
+            if (y.getCheckYear() == year) {
+                return y;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 旧格式为日期字符串数组，如 ["2025-01-01", "2025-01-02"]
+     * 兼容带时间的字符串以及 {"date": "..."} 形式，无法解析的条目跳过
+     */
+    private List<LocalDate> parseCheckHistory(Long itemId, String json) {
+        List<LocalDate> dates = new ArrayList<>();
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(json);
+            // 有的驱动会把整段JSON再包一层字符串返回
+            if (root != null && root.isTextual()) {
+                root = objectMapper.readTree(root.asText());
+            }
+        } catch (Exception e) {
+            log.warn("习惯{}的打卡历史不是合法JSON，已跳过", itemId);
+            return dates;
+        }
+        if (root == null || !root.isArray()) {
+            return dates;
+        }
+        for (JsonNode node : root) {
+            String text = node.isObject() ? node.path("date").asText(null) : node.asText(null);
+            if (text == null || text.length() < 10) {
+                continue;
+            }
+            try {
+                dates.add(LocalDate.parse(text.substring(0, 10)));
+            } catch (DateTimeParseException e) {
+                log.warn("习惯{}的打卡日期无法解析: {}", itemId, text);
+            }
+        }
+        return dates;
+    }
+}
@@ -1,17 +1,42 @@
 package com.hyanhsing.hyanjot.service.impl;
 
+import com.hyanhsing.hyanjot.datasource.RoutingContext;
+import com.hyanhsing.hyanjot.dto.CursorPage;
+import com.hyanhsing.hyanjot.dto.ItemChanges;
+import com.hyanhsing.hyanjot.dto.ItemCursor;
+import com.hyanhsing.hyanjot.dto.SyncToken;
 import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ItemTombstone;
+import com.hyanhsing.hyanjot.entity.Subtask;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
 import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.ItemTombstoneRepository;
 import com.hyanhsing.hyanjot.repository.TodoItemRepository;
+import com.hyanhsing.hyanjot.repository.HabitCheckYearRepository;
 import com.hyanhsing.hyanjot.repository.HabitItemRepository;
 import com.hyanhsing.hyanjot.repository.ReminderItemRepository;
+import com.hyanhsing.hyanjot.repository.SubtaskRepository;
+import com.hyanhsing.hyanjot.search.ItemSearchIndex;
 import com.hyanhsing.hyanjot.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ItemServiceImpl implements ItemService {
@@ -25,9 +50,54 @@ public class ItemServiceImpl implements ItemService {
     @Autowired
     private HabitItemRepository habitItemRepository;
 
+    @Autowired
+    private HabitCheckYearRepository habitCheckYearRepository;
+
+    @Autowired
+    private ItemTombstoneRepository itemTombstoneRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private ReminderItemRepository reminderItemRepository;
 
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private ChunkedWriter chunkedWriter;
+
+    @Autowired
+    private SortOrderAllocator sortOrderAllocator;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    /**
+     * 默认页大小
+     */
+    @Value("${hyanjot.item.page.default-size:50}")
+    private int defaultPageSize;
+
+    /**
+     * 最大页大小，限制单次请求的内存占用
+     */
+    @Value("${hyanjot.item.page.max-size:200}")
+    private int maxPageSize;
+
+    /**
+     * 增量同步的上界滞后于当前时间多少毫秒，需大于最长的写事务
+     */
+    @Value("${hyanjot.sync.lag-ms:5000}")
+    private long syncLagMs;
+
+    /**
+     * 墓碑保留天数，水位比这更早的客户端需要全量刷新
+     */
+    @Value("${hyanjot.sync.tombstone-retention-days:30}")
+    private long tombstoneRetentionDays;
+
     @Override
     public Item createItem(Item item) {
         // 设置默认值
@@ -35,9 +105,13 @@ public class ItemServiceImpl implements ItemService {
             item.setStatus("active");
         }
         if (item.getSortOrder() == null) {
-            item.setSortOrder(0);
+            Objects.requireNonNull(item.getUserId(), "用户ID不能为空");
+            item.setSortOrder(sortOrderAllocator.next(
+                    sortOrderAllocator.lastSortOrders(List.of(item.getUserId())), item.getUserId()));
         }
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(saved, ItemChangedEvent.CREATED));
+        return saved;
     }
 
     @Override
@@ -46,7 +120,11 @@ public class ItemServiceImpl implements ItemService {
         return itemRepository.findById(id);
     }
 
+    /**
+     * 同一个事务里读主表和子表：子表实体从二级缓存取出时，关联的Item直接用已加载的，不再查库
+     */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Item> findByIdWithDetails(Long id) {
         Objects.requireNonNull(id, "ID不能为空");
         Optional<Item> itemOpt = itemRepository.findById(id);
@@ -54,7 +132,10 @@ public class ItemServiceImpl implements ItemService {
             Item item = itemOpt.get();
             // 根据type加载对应的子表数据
             if ("TODO".equals(item.getType())) {
-                todoItemRepository.findById(id).ifPresent(item::setTodoItem);
+                todoItemRepository.findById(id).ifPresent(todoItem -> {
+                    todoItem.setSubtasks(subtaskRepository.findByTodoIdOrderByPositionAscIdAsc(id));
+                    item.setTodoItem(todoItem);
+                });
             } else if ("HABIT".equals(item.getType())) {
                 habitItemRepository.findById(id).ifPresent(item::setHabitItem);
             } else if ("REMINDER".equals(item.getType())) {
@@ -65,6 +146,32 @@ public class ItemServiceImpl implements ItemService {
         return Optional.empty();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findByIdsWithDetails(List<Long> ids, boolean includeSubtasks) {
+        Objects.requireNonNull(ids, "ID列表不能为空");
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (ids.size() > maxPageSize) {
+            throw new IllegalArgumentException("一次最多查询" + maxPageSize + "个备忘项");
+        }
+        Map<Long, Item> byId = new HashMap<>();
+        for (Item item : itemRepository.findAllById(ids)) {
+            byId.put(item.getId(), item);
+        }
+        // 按请求的顺序返回，不存在的ID直接跳过
+        List<Item> items = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        attachDetails(items, includeSubtasks);
+        return items;
+    }
+
     @Override
     public List<Item> findByUserId(Long userId) {
         return itemRepository.findByUserIdOrderBySortOrderAsc(userId);
@@ -80,16 +187,321 @@ public class ItemServiceImpl implements ItemService {
         return itemRepository.findByUserIdAndStatusOrderBySortOrderAsc(userId, status);
     }
 
+    @Override
+    public CursorPage<Item> findPageByUserId(Long userId, String cursor, Integer size) {
+        ItemCursor after = ItemCursor.decode(cursor);
+        int limit = resolvePageSize(size);
+        List<Item> rows = itemRepository.findPageByUserId(userId,
+                after.getSortOrder(), after.getId(), PageRequest.ofSize(limit + 1));
+        return toPage(rows, limit);
+    }
+
+    @Override
+    public CursorPage<Item> findPageByUserIdAndType(Long userId, String type, String cursor, Integer size) {
+        ItemCursor after = ItemCursor.decode(cursor);
+        int limit = resolvePageSize(size);
+        List<Item> rows = itemRepository.findPageByUserIdAndType(userId, type,
+                after.getSortOrder(), after.getId(), PageRequest.ofSize(limit + 1));
+        return toPage(rows, limit);
+    }
+
+    @Override
+    public CursorPage<Item> findPageByUserIdAndStatus(Long userId, String status, String cursor, Integer size) {
+        ItemCursor after = ItemCursor.decode(cursor);
+        int limit = resolvePageSize(size);
+        List<Item> rows = itemRepository.findPageByUserIdAndStatus(userId, status,
+                after.getSortOrder(), after.getId(), PageRequest.ofSize(limit + 1));
+        return toPage(rows, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Item> findPageByUserIdWithDetails(Long userId, String cursor, Integer size,
+                                                        boolean includeSubtasks) {
+        CursorPage<Item> page = findPageByUserId(userId, cursor, size);
+        attachDetails(page.getItems(), includeSubtasks);
+        return page;
+    }
+
+    /**
+     * 上界取 当前时间 - sync-lag：上界之前的行都已提交，之后也不会再有updated_at落在上界之前的写入，
+     * 因此上界以内按 (updatedAt, id) 翻页是稳定的，下一次同步从上界接着取，不会漏掉提交较慢的事务
+     * （前提是写事务都短于sync-lag）
+     * 始终读主库：副本的延迟只受max-lag-ms约束，和sync-lag没有关系，从副本读会把还没复制过来的写入永久跳过
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ItemChanges findChanges(Long userId, String since, Integer size, boolean includeSubtasks) {
+        Objects.requireNonNull(userId, "用户ID不能为空");
+        // 只读事务在第一条SQL时才取连接，这里设置仍然来得及
+        return RoutingContext.callOnPrimary(() -> loadChanges(userId, since, size, includeSubtasks));
+    }
+
+    private ItemChanges loadChanges(Long userId, String since, Integer size, boolean includeSubtasks) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upTo = now.minus(syncLagMs, ChronoUnit.MILLIS).truncatedTo(ChronoUnit.MILLIS);
+        SyncToken token = SyncToken.decode(since);
+        if (token == null) {
+            // 首次同步：返回全部现存备忘项，不需要墓碑
+            token = new SyncToken(SyncToken.EPOCH, 0L, upTo, Long.MAX_VALUE);
+        } else if (token.getTombstoneTime().isBefore(now.minusDays(tombstoneRetentionDays))) {
+            return new ItemChanges(new ArrayList<>(), new ArrayList<>(), null, false, true);
+        }
+
+        int limit = resolvePageSize(size);
+        List<Item> items = itemRepository.findChangedByUserId(userId,
+                token.getItemTime(), token.getItemId(), upTo, PageRequest.ofSize(limit + 1));
+        List<ItemTombstone> deleted = itemTombstoneRepository.findChangedByUserId(userId,
+                token.getTombstoneTime(), token.getTombstoneId(), upTo, PageRequest.ofSize(limit + 1));
+
+        boolean moreItems = items.size() > limit;
+        boolean moreDeleted = deleted.size() > limit;
+        if (moreItems) {
+            items = new ArrayList<>(items.subList(0, limit));
+        }
+        if (moreDeleted) {
+            deleted = new ArrayList<>(deleted.subList(0, limit));
+        }
+        // 没取满的一侧直接推进到上界
+        Item lastItem = moreItems ? items.get(items.size() - 1) : null;
+        ItemTombstone lastDeleted = moreDeleted ? deleted.get(deleted.size() - 1) : null;
+        SyncToken next = new SyncToken(
+                lastItem != null ? lastItem.getUpdatedAt() : upTo,
+                lastItem != null ? lastItem.getId() : Long.MAX_VALUE,
+                lastDeleted != null ? lastDeleted.getDeletedAt() : upTo,
+                lastDeleted != null ? lastDeleted.getId() : Long.MAX_VALUE);
+
+        attachDetails(items, includeSubtasks);
+        return new ItemChanges(items, deleted, next.encode(), moreItems || moreDeleted, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> search(Long userId, String query, Integer size) {
+        Objects.requireNonNull(userId, "用户ID不能为空");
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("搜索内容不能为空");
+        }
+        List<Long> ids = searchIndex.search(userId, query, resolvePageSize(size));
+        return findByIdsWithDetails(ids, false);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${hyanjot.sync.tombstone-purge-interval-ms:3600000}")
+    public int purgeTombstones() {
+        return itemTombstoneRepository.deleteByDeletedAtBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+    }
+
     @Override
     public Item updateItem(Item item) {
         Objects.requireNonNull(item, "Item不能为空");
-        return itemRepository.save(item);
+        if (item.getSortOrder() == null && item.getId() != null) {
+            // 未传排序值时保持原位置（排序请用moveItem）
+            item.setSortOrder(itemRepository.findById(item.getId()).map(Item::getSortOrder).orElse(0));
+        }
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(saved, ItemChangedEvent.UPDATED));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteItem(Long id) {
         Objects.requireNonNull(id, "ID不能为空");
-        itemRepository.deleteById(id);
+        // 子表不再由Item级联，先删子表再删主表（不存在的子表行直接忽略）
+        // 子类型表按实体删除：JPQL批量删除会清空整个二级缓存区域，按实体删除只失效这一条
+        subtaskRepository.deleteByTodoId(id);
+        habitCheckYearRepository.deleteByHabitId(id);
+        todoItemRepository.findById(id).ifPresent(todoItemRepository::delete);
+        habitItemRepository.findById(id).ifPresent(habitItemRepository::delete);
+        reminderItemRepository.findById(id).ifPresent(reminderItemRepository::delete);
+        itemRepository.findById(id).ifPresent(item -> {
+            itemRepository.delete(item);
+            // 记录墓碑，增量同步据此通知客户端删除
+            ItemTombstone tombstone = new ItemTombstone();
+            tombstone.setItemId(item.getId());
+            tombstone.setUserId(item.getUserId());
+            tombstone.setType(item.getType());
+            tombstone.setDeletedAt(LocalDateTime.now());
+            itemTombstoneRepository.save(tombstone);
+            eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.DELETED));
+        });
+    }
+
+    @Override
+    public List<Long> createItems(List<Item> items) {
+        return chunkedWriter.write(items, chunk -> {
+            List<Long> ids = new ArrayList<>(chunk.size());
+            Set<Long> userIds = new HashSet<>();
+            for (Item item : chunk) {
+                userIds.add(Objects.requireNonNull(item.getUserId(), "用户ID不能为空"));
+            }
+            // 每块一次分组查询取各用户末尾的排序值，之后在内存中连续分配
+            Map<Long, Integer> lastSortOrders = sortOrderAllocator.lastSortOrders(userIds);
+            for (Item item : chunk) {
+                item.setId(null);
+                if (item.getStatus() == null) {
+                    item.setStatus("active");
+                }
+                if (item.getSortOrder() == null) {
+                    item.setSortOrder(sortOrderAllocator.next(lastSortOrders, item.getUserId()));
+                }
+            }
+            // 号段ID在persist时就已分配，INSERT留到块结束flush时批量执行
+            for (Item saved : itemRepository.saveAll(chunk)) {
+                ids.add(saved.getId());
+                eventPublisher.publishEvent(ItemChangedEvent.of(saved, ItemChangedEvent.CREATED));
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public int updateItems(List<Item> items) {
+        List<Integer> counts = chunkedWriter.write(items, chunk -> {
+            // 一次IN查询载入整块，修改后由flush批量UPDATE
+            Map<Long, Item> byId = new HashMap<>();
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (Item patch : chunk) {
+                ids.add(Objects.requireNonNull(patch.getId(), "ID不能为空"));
+            }
+            for (Item item : itemRepository.findAllById(ids)) {
+                byId.put(item.getId(), item);
+            }
+            int updated = 0;
+            for (Item patch : chunk) {
+                Item item = byId.get(patch.getId());
+                if (item == null) {
+                    continue;
+                }
+                if (patch.getTitle() != null) {
+                    item.setTitle(patch.getTitle());
+                }
+                if (patch.getContent() != null) {
+                    item.setContent(patch.getContent());
+                }
+                if (patch.getStatus() != null) {
+                    item.setStatus(patch.getStatus());
+                }
+                if (patch.getConfig() != null) {
+                    item.setConfig(patch.getConfig());
+                }
+                if (patch.getSortOrder() != null) {
+                    item.setSortOrder(patch.getSortOrder());
+                }
+                eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.UPDATED));
+                updated++;
+            }
+            return List.of(updated);
+        });
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public int deleteItems(List<Long> ids) {
+        List<Integer> counts = chunkedWriter.write(ids, chunk -> {
+            List<Item> items = itemRepository.findAllById(chunk);
+            if (items.isEmpty()) {
+                return List.of(0);
+            }
+            List<Long> found = items.stream().map(Item::getId).toList();
+            // 与deleteItem相同：先删子表再删主表，每张表一条 IN 删除
+            subtaskRepository.deleteByTodoIdIn(found);
+            habitCheckYearRepository.deleteByHabitIdIn(found);
+            todoItemRepository.deleteAllByIdInBatch(found);
+            habitItemRepository.deleteAllByIdInBatch(found);
+            reminderItemRepository.deleteAllByIdInBatch(found);
+            itemRepository.deleteAllByIdInBatch(found);
+            LocalDateTime now = LocalDateTime.now();
+            List<ItemTombstone> tombstones = new ArrayList<>(items.size());
+            for (Item item : items) {
+                ItemTombstone tombstone = new ItemTombstone();
+                tombstone.setItemId(item.getId());
+                tombstone.setUserId(item.getUserId());
+                tombstone.setType(item.getType());
+                tombstone.setDeletedAt(now);
+                tombstones.add(tombstone);
+                eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.DELETED));
+            }
+            itemTombstoneRepository.saveAll(tombstones);
+            return List.of(items.size());
+        });
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * 锁定自身和两侧的备忘项后取中间值，通常只UPDATE被移动的一行
+     * 两侧之间没有空隙时在当前事务里重排该用户的排序值，再取中间值
+     */
+    @Override
+    @Transactional
+    public Item moveItem(Long id, Long afterId, Long beforeId) {
+        Objects.requireNonNull(id, "ID不能为空");
+        if (id.equals(afterId) || id.equals(beforeId)) {
+            throw new IllegalArgumentException("不能移动到自身旁边");
+        }
+        List<Long> ids = new ArrayList<>(List.of(id));
+        if (afterId != null) {
+            ids.add(afterId);
+        }
+        if (beforeId != null) {
+            ids.add(beforeId);
+        }
+        Map<Long, Item> byId = new HashMap<>();
+        for (Item locked : itemRepository.findAllByIdForUpdate(ids)) {
+            byId.put(locked.getId(), locked);
+        }
+        Item item = byId.get(id);
+        if (item == null) {
+            throw new RuntimeException("备忘项不存在");
+        }
+        Item after = afterId != null ? neighbour(byId, afterId, item) : null;
+        Item before = beforeId != null ? neighbour(byId, beforeId, item) : null;
+        if (after == null && before == null) {
+            return item;
+        }
+        if (after != null && before != null && !isBefore(after, before)) {
+            throw new IllegalArgumentException("两侧备忘项的顺序不正确");
+        }
+
+        // 旧数据的排序值可能为NULL，当作没有空隙处理，重排后再取
+        Integer sortOrder = hasSortOrder(after) && hasSortOrder(before)
+                ? sortOrderAllocator.between(item.getUserId(),
+                        after != null ? after.getSortOrder() : null, before != null ? before.getSortOrder() : null)
+                : null;
+        if (sortOrder == null) {
+            // 空隙用完：重排后两侧的实体（同一持久化上下文）已是新值
+            sortOrderAllocator.rebalance(item.getUserId());
+            sortOrder = sortOrderAllocator.between(item.getUserId(),
+                    after != null ? after.getSortOrder() : null, before != null ? before.getSortOrder() : null);
+        }
+        if (!Objects.equals(item.getSortOrder(), sortOrder)) {
+            item.setSortOrder(sortOrder);
+            eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.UPDATED));
+        }
+        return item;
+    }
+
+    private Item neighbour(Map<Long, Item> byId, Long neighbourId, Item item) {
+        Item neighbour = byId.get(neighbourId);
+        if (neighbour == null || !neighbour.getUserId().equals(item.getUserId())) {
+            throw new IllegalArgumentException("相邻备忘项不存在: " + neighbourId);
+        }
+        return neighbour;
+    }
+
+    private static boolean hasSortOrder(Item neighbour) {
+        return neighbour == null || neighbour.getSortOrder() != null;
+    }
+
+    /**
+     * 列表按 (sortOrder, id) 排序
+     */
+    private static boolean isBefore(Item a, Item b) {
+        int compare = Integer.compare(a.getSortOrder() != null ? a.getSortOrder() : 0,
+                b.getSortOrder() != null ? b.getSortOrder() : 0);
+        return compare < 0 || (compare == 0 && a.getId() < b.getId());
     }
 
     @Override
@@ -103,6 +515,70 @@ public class ItemServiceImpl implements ItemService {
         } else {
             item.setStatus("active");
         }
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(saved, ItemChangedEvent.UPDATED));
+        return saved;
+    }
+
+    /**
+     * 批量填充子表数据：按type分组，每张子表（含子任务表）最多一次 WHERE ... IN (...) 查询
+     * 需要在事务中调用，子表的item关联直接命中当前会话中已加载的Item，不会再逐行查询
+     */
+    private void attachDetails(List<Item> items, boolean includeSubtasks) {
+        List<Long> todoIds = new ArrayList<>();
+        List<Long> habitIds = new ArrayList<>();
+        List<Long> reminderIds = new ArrayList<>();
+        Map<Long, Item> byId = new HashMap<>();
+        for (Item item : items) {
+            byId.put(item.getId(), item);
+            if ("TODO".equals(item.getType())) {
+                todoIds.add(item.getId());
+            } else if ("HABIT".equals(item.getType())) {
+                habitIds.add(item.getId());
+            } else if ("REMINDER".equals(item.getType())) {
+                reminderIds.add(item.getId());
+            }
+        }
+        if (!todoIds.isEmpty()) {
+            Map<Long, List<Subtask>> subtasksByTodo = new HashMap<>();
+            if (includeSubtasks) {
+                for (Subtask subtask : subtaskRepository.findByTodoIdInOrderByTodoIdAscPositionAscIdAsc(todoIds)) {
+                    subtasksByTodo.computeIfAbsent(subtask.getTodoId(), k -> new ArrayList<>()).add(subtask);
+                }
+            }
+            todoItemRepository.findAllById(todoIds).forEach(todoItem -> {
+                if (includeSubtasks) {
+                    todoItem.setSubtasks(subtasksByTodo.getOrDefault(todoItem.getId(), new ArrayList<>()));
+                }
+                byId.get(todoItem.getId()).setTodoItem(todoItem);
+            });
+        }
+        if (!habitIds.isEmpty()) {
+            habitItemRepository.findAllById(habitIds)
+                    .forEach(habitItem -> byId.get(habitItem.getId()).setHabitItem(habitItem));
+        }
+        if (!reminderIds.isEmpty()) {
+            reminderItemRepository.findAllById(reminderIds)
+                    .forEach(reminderItem -> byId.get(reminderItem.getId()).setReminderItem(reminderItem));
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * 多查一行用来判断是否还有下一页
+     */
+    private CursorPage<Item> toPage(List<Item> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<Item> items = new ArrayList<>(rows.subList(0, limit));
+        String next = ItemCursor.of(items.get(limit - 1)).encode();
+        return new CursorPage<>(items, next, true);
     }
 }
\ No newline at end of file
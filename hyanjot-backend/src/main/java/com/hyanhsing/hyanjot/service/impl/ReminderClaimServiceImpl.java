@@ -0,0 +1,108 @@
+package com.hyanhsing.hyanjot.service.impl;
+
+import com.hyanhsing.hyanjot.entity.ReminderItem;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.ReminderItemRepository;
+import com.hyanhsing.hyanjot.scheduler.ReminderRecurrence;
+import com.hyanhsing.hyanjot.service.ReminderClaimService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class ReminderClaimServiceImpl implements ReminderClaimService {
+
+    @Autowired
+    private ReminderItemRepository reminderItemRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    /**
+     * 租约时长，需要大于预加载窗口，否则还没触发租约就过期了
+     */
+    @Value("${hyanjot.reminder.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Override
+    @Transactional
+    public List<ReminderItem> claimDue(String nodeId, LocalDateTime horizon, int limit) {
+        Objects.requireNonNull(nodeId, "节点ID不能为空");
+        LocalDateTime now = LocalDateTime.now();
+        // 1. SELECT ... FOR UPDATE SKIP LOCKED 锁定一批行
+        List<Long> ids = reminderItemRepository.lockClaimable(horizon, now, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 2. 写入租约，事务提交后释放行锁，其他节点因租约未过期不会再选中
+        reminderItemRepository.lease(ids, nodeId, now.plusSeconds(leaseSeconds));
+        // 3. 取出提醒内容
+        return reminderItemRepository.findWithItemByIdIn(ids);
+    }
+
+    @Override
+    @Transactional
+    public int markNotified(String nodeId, Collection<Long> ids) {
+        Objects.requireNonNull(nodeId, "节点ID不能为空");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int marked = reminderItemRepository.markNotified(ids, nodeId, now);
+        if (marked > 0) {
+            itemRepository.touch(ids, now);
+        }
+        return marked;
+    }
+
+    @Override
+    @Transactional
+    public int advanceRecurring(String nodeId, Collection<Long> ids) {
+        Objects.requireNonNull(nodeId, "节点ID不能为空");
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> advanced = new ArrayList<>();
+        for (ReminderItem reminder : reminderItemRepository.findAllById(ids)) {
+            // 租约已被其他节点接管的不处理
+            if (!nodeId.equals(reminder.getLeaseOwner())) {
+                continue;
+            }
+            int advance = reminder.getAdvanceMinutes() != null ? reminder.getAdvanceMinutes() : 0;
+            // 严格晚于本次，且触发时间在当前之后（停机错过的直接跳过）
+            LocalDateTime after = reminder.currentOccurrence();
+            if (now.plusMinutes(advance).isAfter(after)) {
+                after = now.plusMinutes(advance);
+            }
+            LocalDateTime next = ReminderRecurrence.next(reminder.getRemindTime(), reminder.getRepeatType(), after);
+            if (next == null) {
+                reminder.setNotified(true);
+            } else {
+                reminder.setNextRemindTime(next);
+            }
+            // fire_time由@PreUpdate按nextRemindTime重新计算
+            reminder.setLeaseOwner(null);
+            reminder.setLeaseExpiresAt(null);
+            advanced.add(reminder.getId());
+        }
+        if (!advanced.isEmpty()) {
+            itemRepository.touch(advanced, now);
+        }
+        return advanced.size();
+    }
+
+    @Override
+    @Transactional
+    public int releaseLeases(String nodeId) {
+        Objects.requireNonNull(nodeId, "节点ID不能为空");
+        return reminderItemRepository.releaseLeases(nodeId);
+    }
+}
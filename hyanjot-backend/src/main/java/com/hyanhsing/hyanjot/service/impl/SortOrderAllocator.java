@@ -0,0 +1,143 @@
+package com.hyanhsing.hyanjot.service.impl;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带间隔的排序值：相邻备忘项之间默认留GAP的空隙
+ *
+ * 新备忘项追加到末尾（最大值 + GAP），拖动排序时取两侧的中间值，只更新被移动的一行
+ * 空隙用完（两侧相差 <= 1）时才需要重排整个用户的排序值：
+ * 空隙小于MIN_GAP时登记到后台重排，真正用完时由移动操作在当前事务里同步重排
+ */
+@Slf4j
+@Component
+public class SortOrderAllocator {
+
+    /**
+     * 重排后相邻备忘项的间隔
+     */
+    public static final int GAP = 1024;
+
+    /**
+     * 移动后两侧的空隙小于这个值时登记后台重排
+     */
+    static final int MIN_GAP = 8;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 等待后台重排的用户
+     */
+    private final Set<Long> pendingRebalance = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 各用户当前最大的排序值，一次分组查询；没有备忘项的用户为0
+     * 返回的Map可变，配合next()在内存中连续分配
+     */
+    public Map<Long, Integer> lastSortOrders(Collection<Long> userIds) {
+        Map<Long, Integer> last = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return last;
+        }
+        for (Object[] row : itemRepository.findMaxSortOrders(userIds)) {
+            last.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0);
+        }
+        return last;
+    }
+
+    /**
+     * 在用户末尾分配下一个排序值
+     */
+    public int next(Map<Long, Integer> last, Long userId) {
+        int current = last.getOrDefault(userId, 0);
+        if (current > Integer.MAX_VALUE - GAP) {
+            // 末尾已经没有空间，先和最后一项同值（按ID排在后面），由后台重排拉开
+            pendingRebalance.add(userId);
+            return current;
+        }
+        last.put(userId, current + GAP);
+        return current + GAP;
+    }
+
+    /**
+     * 取 lower 和 upper 之间的排序值，没有空隙时返回null
+     * lower 为null表示移到最前，upper 为null表示移到最后
+     */
+    public Integer between(Long userId, Integer lower, Integer upper) {
+        long lo = lower != null ? lower : (long) upper - 2L * GAP;
+        long hi = upper != null ? upper : (long) lower + 2L * GAP;
+        if (hi - lo <= 1 || lo < Integer.MIN_VALUE || hi > Integer.MAX_VALUE) {
+            return null;
+        }
+        long mid = lo + (hi - lo) / 2;
+        if (mid - lo < MIN_GAP || hi - mid < MIN_GAP) {
+            pendingRebalance.add(userId);
+        }
+        return (int) mid;
+    }
+
+    /**
+     * 按当前顺序 (sortOrder, id) 重新以GAP为间隔分配用户的排序值，需在事务中调用
+     * 先按ID锁定用户的全部备忘项，只更新值有变化的行（由hibernate批量UPDATE）
+     */
+    public int rebalance(Long userId) {
+        List<Item> items = new ArrayList<>(itemRepository.findByUserIdForUpdate(userId));
+        items.sort(Comparator.comparing(Item::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Item::getId));
+        int changed = 0;
+        int sortOrder = 0;
+        for (Item item : items) {
+            sortOrder += GAP;
+            if (item.getSortOrder() == null || item.getSortOrder() != sortOrder) {
+                item.setSortOrder(sortOrder);
+                eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.UPDATED));
+                changed++;
+            }
+        }
+        pendingRebalance.remove(userId);
+        return changed;
+    }
+
+    /**
+     * 后台重排空隙不足的用户，每个用户一个事务
+     */
+    @Scheduled(fixedDelayString = "${hyanjot.item.rebalance-interval-ms:10000}")
+    public void rebalancePending() {
+        for (Long userId : new ArrayList<>(pendingRebalance)) {
+            try {
+                Integer changed = transactionTemplate.execute(status -> rebalance(userId));
+                log.info("用户{}的排序值已重排: {}项", userId, changed);
+            } catch (RuntimeException e) {
+                log.warn("用户{}的排序值重排失败，稍后重试", userId, e);
+            }
+        }
+    }
+
+    boolean isRebalancePending(Long userId) {
+        return pendingRebalance.contains(userId);
+    }
+}
@@ -1,20 +1,27 @@
 package com.hyanhsing.hyanjot.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
 import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.Subtask;
 import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.event.ItemChangedEvent;
 import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.SubtaskRepository;
 import com.hyanhsing.hyanjot.repository.TodoItemRepository;
 import com.hyanhsing.hyanjot.service.TodoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class TodoServiceImpl implements TodoService {
@@ -26,11 +33,46 @@ public class TodoServiceImpl implements TodoService {
     private TodoItemRepository todoItemRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChunkedWriter chunkedWriter;
+
+    @Autowired
+    private SortOrderAllocator sortOrderAllocator;
 
     @Override
     @Transactional
     public Item createTodo(TodoCreateDTO dto) {
+        Objects.requireNonNull(dto.getUserId(), "用户ID不能为空");
+        return persistTodo(dto, sortOrderAllocator.lastSortOrders(List.of(dto.getUserId())));
+    }
+
+    @Override
+    public List<Long> createTodos(List<TodoCreateDTO> dtos) {
+        return chunkedWriter.write(dtos, chunk -> {
+            List<Long> ids = new ArrayList<>(chunk.size());
+            Set<Long> userIds = new HashSet<>();
+            for (TodoCreateDTO dto : chunk) {
+                userIds.add(Objects.requireNonNull(dto.getUserId(), "用户ID不能为空"));
+            }
+            Map<Long, Integer> lastSortOrders = sortOrderAllocator.lastSortOrders(userIds);
+            for (TodoCreateDTO dto : chunk) {
+                ids.add(persistTodo(dto, lastSortOrders).getId());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * 创建Item + TodoItem + 子任务，需在事务中调用
+     * ID由号段分配，三张表的INSERT都推迟到flush，批量创建时同表的INSERT合并执行
+     * 未指定排序值时追加到用户末尾，lastSortOrders为各用户当前末尾的排序值
+     */
+    private Item persistTodo(TodoCreateDTO dto, Map<Long, Integer> lastSortOrders) {
         // 验证必填字段
         Objects.requireNonNull(dto.getDeadline(), "截止日期不能为空");
         Objects.requireNonNull(dto.getPriority(), "优先级不能为空");
@@ -42,7 +84,8 @@ public class TodoServiceImpl implements TodoService {
         item.setTitle(dto.getTitle());
         item.setContent(dto.getContent());
         item.setStatus("active");
-        item.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+        item.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder()
+                : sortOrderAllocator.next(lastSortOrders, dto.getUserId()));
         item = itemRepository.save(item);
 
         // 创建TodoItem
@@ -63,38 +106,41 @@ public class TodoServiceImpl implements TodoService {
             todoItem.setProgressMode(null);
             todoItem.setProgressCurrent(null);
             todoItem.setProgressTotal(null);
-            todoItem.setSubtasks(null);
         } else if (progressMode) {
             // 进度模式
             todoItem.setProgressMode(true);
             todoItem.setProgressCurrent(0);
             todoItem.setProgressTotal(dto.getProgressTotal());
-            todoItem.setSubtasks(null);
         } else {
             // 子任务模式（false）
             todoItem.setProgressMode(false);
             todoItem.setProgressCurrent(null);
             todoItem.setProgressTotal(null);
-            // 将子任务列表转为JSON
             if (hasSubtasks) {
-                try {
-                    String subtasksJson = objectMapper.writeValueAsString(dto.getSubtasks());
-                    todoItem.setSubtasks(subtasksJson);
-                } catch (Exception e) {
-                    throw new RuntimeException("子任务JSON转换失败", e);
-                }
-            } else {
-                // 子任务模式下如果没有子任务，设置空数组
-                try {
-                    String subtasksJson = objectMapper.writeValueAsString(new java.util.ArrayList<>());
-                    todoItem.setSubtasks(subtasksJson);
-                } catch (Exception e) {
-                    throw new RuntimeException("子任务JSON转换失败", e);
-                }
+                todoItem.setSubtasksTotal(dto.getSubtasks().size());
+                todoItem.setSubtasksDone((int) dto.getSubtasks().stream()
+                        .filter(subtask -> Boolean.TRUE.equals(subtask.getCompleted()))
+                        .count());
             }
         }
 
         todoItemRepository.save(todoItem);
+
+        // 子任务模式：每个子任务一行
+        if (Boolean.FALSE.equals(progressMode) && hasSubtasks) {
+            List<Subtask> rows = new ArrayList<>();
+            int position = 0;
+            for (TodoCreateDTO.SubtaskDTO dtoSubtask : dto.getSubtasks()) {
+                Subtask subtask = new Subtask();
+                subtask.setTodoId(item.getId());
+                subtask.setPosition(++position);
+                subtask.setText(dtoSubtask.getText());
+                subtask.setCompleted(Boolean.TRUE.equals(dtoSubtask.getCompleted()));
+                rows.add(subtask);
+            }
+            subtaskRepository.saveAll(rows);
+        }
+        eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.CREATED));
         return item;
     }
 
@@ -135,6 +181,7 @@ public class TodoServiceImpl implements TodoService {
         }
 
         todoItemRepository.save(todoItem);
+        eventPublisher.publishEvent(ItemChangedEvent.of(item, ItemChangedEvent.UPDATED));
         return item;
     }
 
@@ -142,42 +189,17 @@ public class TodoServiceImpl implements TodoService {
     @Transactional
     public TodoItem incrementProgress(Long itemId) {
         Objects.requireNonNull(itemId, "ID不能为空");
-        TodoItem todoItem = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
-
-        if (todoItem.getProgressMode() == null || !todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是进度模式");
-        }
-
-        if (todoItem.getProgressCurrent() < todoItem.getProgressTotal()) {
-            todoItem.setProgressCurrent(todoItem.getProgressCurrent() + 1);
-            todoItem = todoItemRepository.save(todoItem);
-        }
-        // 每次增加进度后都检查完成状态（即使已经满了也要检查，确保状态正确）
-        checkAndUpdateCompletionStatus(itemId);
-
-        return todoItem;
+        // 单条条件UPDATE完成+1并加行锁，之后读取新状态（连带Item），再用一条UPDATE写Item的updated_at（状态翻转时连同状态）
+        int updated = todoItemRepository.incrementProgress(itemId);
+        return applyProgressChange(itemId, updated);
     }
 
     @Override
     @Transactional
     public TodoItem decrementProgress(Long itemId) {
         Objects.requireNonNull(itemId, "ID不能为空");
-        TodoItem todoItem = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
-
-        if (todoItem.getProgressMode() == null || !todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是进度模式");
-        }
-
-        if (todoItem.getProgressCurrent() > 0) {
-            todoItem.setProgressCurrent(todoItem.getProgressCurrent() - 1);
-            todoItem = todoItemRepository.save(todoItem);
-        }
-        // 每次减少进度后都检查完成状态
-        checkAndUpdateCompletionStatus(itemId);
-
-        return todoItem;
+        int updated = todoItemRepository.decrementProgress(itemId);
+        return applyProgressChange(itemId, updated);
     }
 
     @Override
@@ -205,38 +227,21 @@ public class TodoServiceImpl implements TodoService {
         todoItem = todoItemRepository.save(todoItem);
         checkAndUpdateCompletionStatus(itemId);
 
-        return todoItem;
+        return changed(todoItem);
     }
 
     @Override
     @Transactional
     public TodoItem toggleSubtask(Long itemId, Integer index) {
         Objects.requireNonNull(itemId, "ID不能为空");
-        TodoItem todoItem = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
-
-        if (todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是子任务模式");
-        }
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskAtIndex(itemId, index);
 
-        List<TodoCreateDTO.SubtaskDTO> subtasks = getSubtasks(todoItem);
-        if (index < 0 || index >= subtasks.size()) {
-            throw new RuntimeException("子任务索引超出范围");
-        }
-
-        // 切换完成状态
-        subtasks.get(index).setCompleted(!subtasks.get(index).getCompleted());
-
-        // 保存回JSON
-        try {
-            todoItem.setSubtasks(objectMapper.writeValueAsString(subtasks));
-            todoItem = todoItemRepository.save(todoItem);
-            checkAndUpdateCompletionStatus(itemId);
-        } catch (Exception e) {
-            throw new RuntimeException("子任务JSON转换失败", e);
-        }
+        // 切换完成状态，只写这一行，并同步计数
+        toggleAndCount(subtask);
+        checkAndUpdateCompletionStatus(itemId);
 
-        return todoItem;
+        return changed(withSubtasks(todoItem));
     }
 
     @Override
@@ -244,98 +249,94 @@ public class TodoServiceImpl implements TodoService {
     public TodoItem addSubtask(Long itemId, String text) {
         Objects.requireNonNull(itemId, "ID不能为空");
         Objects.requireNonNull(text, "子任务文本不能为空");
-        
-        TodoItem todoItem = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
 
-        if (todoItem.getProgressMode() != null && todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是子任务模式");
-        }
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
 
-        List<TodoCreateDTO.SubtaskDTO> subtasks = getSubtasks(todoItem);
-        TodoCreateDTO.SubtaskDTO newSubtask = new TodoCreateDTO.SubtaskDTO();
-        newSubtask.setText(text);
-        newSubtask.setCompleted(false);
-        subtasks.add(newSubtask);
-
-        try {
-            String subtasksJson = objectMapper.writeValueAsString(subtasks);
-            todoItem.setSubtasks(subtasksJson);
-            todoItem = todoItemRepository.save(todoItem);
-            // 确保立即刷新，避免缓存问题
-            todoItemRepository.flush();
-            checkAndUpdateCompletionStatus(itemId);
-            
-            // 验证保存是否成功
-            TodoItem saved = todoItemRepository.findById(itemId)
-                    .orElseThrow(() -> new RuntimeException("保存后无法找到TODO项"));
-            if (saved.getSubtasks() == null || !saved.getSubtasks().equals(subtasksJson)) {
-                throw new RuntimeException("保存验证失败：数据不一致");
-            }
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("子任务JSON转换失败: " + e.getMessage(), e);
-        }
+        Subtask subtask = new Subtask();
+        subtask.setTodoId(itemId);
+        subtask.setPosition(subtaskRepository.findMaxPosition(itemId) + 1);
+        subtask.setText(text);
+        subtask.setCompleted(false);
+        subtaskRepository.save(subtask);
+        todoItemRepository.adjustSubtaskCounters(itemId, 0, 1);
+        checkAndUpdateCompletionStatus(itemId);
 
-        return todoItem;
+        return changed(withSubtasks(todoItem));
     }
 
     @Override
     @Transactional
     public TodoItem updateSubtask(Long itemId, Integer index, String text) {
         Objects.requireNonNull(itemId, "ID不能为空");
-        TodoItem todoItem = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskAtIndex(itemId, index);
 
-        if (todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是子任务模式");
-        }
+        subtask.setText(text);
+        subtaskRepository.save(subtask);
 
-        List<TodoCreateDTO.SubtaskDTO> subtasks = getSubtasks(todoItem);
-        if (index < 0 || index >= subtasks.size()) {
-            throw new RuntimeException("子任务索引超出范围");
-        }
+        return changed(withSubtasks(todoItem));
+    }
 
-        subtasks.get(index).setText(text);
+    @Override
+    @Transactional
+    public TodoItem deleteSubtask(Long itemId, Integer index) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskAtIndex(itemId, index);
 
-        try {
-            todoItem.setSubtasks(objectMapper.writeValueAsString(subtasks));
-            todoItem = todoItemRepository.save(todoItem);
-        } catch (Exception e) {
-            throw new RuntimeException("子任务JSON转换失败", e);
-        }
+        deleteAndCount(subtask);
+        checkAndUpdateCompletionStatus(itemId);
 
-        return todoItem;
+        return changed(withSubtasks(todoItem));
     }
 
     @Override
-    @Transactional
-    public TodoItem deleteSubtask(Long itemId, Integer index) {
+    @Transactional(readOnly = true)
+    public TodoItem getTodoWithSubtasks(Long itemId) {
         Objects.requireNonNull(itemId, "ID不能为空");
         TodoItem todoItem = todoItemRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("TODO项不存在"));
+        return withSubtasks(todoItem);
+    }
 
-        if (todoItem.getProgressMode()) {
-            throw new RuntimeException("该TODO不是子任务模式");
-        }
+    @Override
+    @Transactional
+    public TodoItem toggleSubtaskById(Long itemId, Long subtaskId) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskById(itemId, subtaskId);
 
-        List<TodoCreateDTO.SubtaskDTO> subtasks = getSubtasks(todoItem);
-        if (index < 0 || index >= subtasks.size()) {
-            throw new RuntimeException("子任务索引超出范围");
-        }
+        toggleAndCount(subtask);
+        checkAndUpdateCompletionStatus(itemId);
+
+        return changed(withSubtasks(todoItem));
+    }
 
-        subtasks.remove((int) index);
+    @Override
+    @Transactional
+    public TodoItem updateSubtaskById(Long itemId, Long subtaskId, String text) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        Objects.requireNonNull(text, "子任务文本不能为空");
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskById(itemId, subtaskId);
 
-        try {
-            todoItem.setSubtasks(objectMapper.writeValueAsString(subtasks));
-            todoItem = todoItemRepository.save(todoItem);
-            checkAndUpdateCompletionStatus(itemId);
-        } catch (Exception e) {
-            throw new RuntimeException("子任务JSON转换失败", e);
-        }
+        subtask.setText(text);
+        subtaskRepository.save(subtask);
 
-        return todoItem;
+        return changed(withSubtasks(todoItem));
+    }
+
+    @Override
+    @Transactional
+    public TodoItem deleteSubtaskById(Long itemId, Long subtaskId) {
+        Objects.requireNonNull(itemId, "ID不能为空");
+        TodoItem todoItem = findSubtaskModeTodo(itemId);
+        Subtask subtask = findSubtaskById(itemId, subtaskId);
+
+        deleteAndCount(subtask);
+        checkAndUpdateCompletionStatus(itemId);
+
+        return changed(withSubtasks(todoItem));
     }
 
     @Override
@@ -365,12 +366,10 @@ public class TodoServiceImpl implements TodoService {
                 shouldBeCompleted = todoItem.getProgressCurrent() >= todoItem.getProgressTotal();
             }
         } else {
-            // 子任务模式：所有子任务都完成
-            List<TodoCreateDTO.SubtaskDTO> subtasks = getSubtasks(todoItem);
-            if (!subtasks.isEmpty()) {
-                shouldBeCompleted = subtasks.stream()
-                        .allMatch(subtask -> Boolean.TRUE.equals(subtask.getCompleted()));
-            }
+            // 子任务模式：所有子任务都完成（至少有一个子任务），只读计数列
+            int total = todoItem.getSubtasksTotal() != null ? todoItem.getSubtasksTotal() : 0;
+            int done = todoItem.getSubtasksDone() != null ? todoItem.getSubtasksDone() : 0;
+            shouldBeCompleted = total > 0 && done >= total;
         }
 
         // 更新状态
@@ -383,17 +382,94 @@ public class TodoServiceImpl implements TodoService {
     }
 
     /**
-     * 解析子任务JSON
+     * 原子更新进度后读取新状态，并同步Item的完成状态
+     * 本事务已持有todo_item行锁，并发按键会在UPDATE处排队，读到的一定是最新值
      */
-    private List<TodoCreateDTO.SubtaskDTO> getSubtasks(TodoItem todoItem) {
-        if (todoItem.getSubtasks() == null || todoItem.getSubtasks().isEmpty()) {
-            return new ArrayList<>();
+    private TodoItem applyProgressChange(Long itemId, int updated) {
+        TodoItem todoItem = todoItemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
+        if (updated == 0) {
+            throw new RuntimeException(Boolean.TRUE.equals(todoItem.getProgressMode())
+                    ? "该TODO未设置总进度" : "该TODO不是进度模式");
         }
-        try {
-            return objectMapper.readValue(todoItem.getSubtasks(),
-                    new TypeReference<List<TodoCreateDTO.SubtaskDTO>>() {});
-        } catch (Exception e) {
-            throw new RuntimeException("子任务JSON解析失败", e);
+
+        boolean completed = todoItem.getProgressTotal() != null
+                && todoItem.getProgressCurrent() != null
+                && todoItem.getProgressCurrent() >= todoItem.getProgressTotal();
+        String status = completed ? "completed" : "active";
+        // 状态翻转时连同updated_at一起更新，否则只刷新updated_at
+        if (status.equals(todoItem.getItem().getStatus())
+                || itemRepository.updateStatusIfChanged(itemId, status, LocalDateTime.now()) == 0) {
+            itemRepository.touch(List.of(itemId), LocalDateTime.now());
+        }
+        eventPublisher.publishEvent(ItemChangedEvent.of(todoItem.getItem(), ItemChangedEvent.UPDATED));
+        return todoItem;
+    }
+
+    /**
+     * 查找子任务模式（或普通模式）的TODO，进度模式不允许操作子任务
+     */
+    private TodoItem findSubtaskModeTodo(Long itemId) {
+        TodoItem todoItem = todoItemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("TODO项不存在"));
+        if (Boolean.TRUE.equals(todoItem.getProgressMode())) {
+            throw new RuntimeException("该TODO不是子任务模式");
         }
+        return todoItem;
+    }
+
+    /**
+     * 按显示顺序的下标查找子任务（硬件端和旧接口使用）
+     */
+    private Subtask findSubtaskAtIndex(Long itemId, Integer index) {
+        if (index == null || index < 0) {
+            throw new RuntimeException("子任务索引超出范围");
+        }
+        List<Subtask> found = subtaskRepository.findAtIndex(itemId, PageRequest.of(index, 1));
+        if (found.isEmpty()) {
+            throw new RuntimeException("子任务索引超出范围");
+        }
+        return found.get(0);
+    }
+
+    private Subtask findSubtaskById(Long itemId, Long subtaskId) {
+        Objects.requireNonNull(subtaskId, "子任务ID不能为空");
+        return subtaskRepository.findByIdAndTodoId(subtaskId, itemId)
+                .orElseThrow(() -> new RuntimeException("子任务不存在"));
+    }
+
+    private void toggleAndCount(Subtask subtask) {
+        boolean completed = !Boolean.TRUE.equals(subtask.getCompleted());
+        subtask.setCompleted(completed);
+        subtaskRepository.save(subtask);
+        todoItemRepository.adjustSubtaskCounters(subtask.getTodoId(), completed ? 1 : -1, 0);
+    }
+
+    private void deleteAndCount(Subtask subtask) {
+        subtaskRepository.delete(subtask);
+        todoItemRepository.adjustSubtaskCounters(subtask.getTodoId(),
+                Boolean.TRUE.equals(subtask.getCompleted()) ? -1 : 0, -1);
+    }
+
+    /**
+     * 刷新Item的updated_at（增量同步据此发现子表变化）并发布变更事件（事务提交后推送给订阅者）
+     */
+    private TodoItem changed(TodoItem todoItem) {
+        itemRepository.touch(List.of(todoItem.getId()), LocalDateTime.now());
+        eventPublisher.publishEvent(ItemChangedEvent.of(todoItem.getItem(), ItemChangedEvent.UPDATED));
+        return todoItem;
+    }
+
+    /**
+     * 填充子任务列表用于返回（计数按刚读到的列表给出，与列表保持一致）
+     */
+    private TodoItem withSubtasks(TodoItem todoItem) {
+        List<Subtask> subtasks = subtaskRepository.findByTodoIdOrderByPositionAscIdAsc(todoItem.getId());
+        todoItem.setSubtasks(subtasks);
+        todoItem.setSubtasksTotal(subtasks.size());
+        todoItem.setSubtasksDone((int) subtasks.stream()
+                .filter(subtask -> Boolean.TRUE.equals(subtask.getCompleted()))
+                .count());
+        return todoItem;
     }
 }
@@ -0,0 +1,37 @@
+package com.hyanhsing.hyanjot.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 超过许可数时等待超时失败，连接关闭后释放许可
+ */
+class ConcurrencyLimitingDataSourceTests {
+
+    @Test
+    void limitsConnectionsHeldAtOnce() throws Exception {
+        SimpleDriverDataSource target = new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:limit;DB_CLOSE_DELAY=-1");
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, 50);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        // 重复关闭不会多释放许可
+        first.close();
+        assertEquals(1, dataSource.availablePermits());
+        try (Connection third = dataSource.getConnection()) {
+            assertEquals(1, third.createStatement().executeQuery("SELECT 1").next() ? 1 : 0);
+        }
+        second.close();
+        assertEquals(2, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,152 @@
+package com.hyanhsing.hyanjot.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyanhsing.hyanjot.config.SortOrderBackfillRunner;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 游标分页：逐页取完不重不漏，按类型/状态过滤，游标无效返回400，排序值为NULL的旧数据补齐后可见
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemCursorPageTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SortOrderBackfillRunner sortOrderBackfillRunner;
+
+    @Test
+    void pagesCoverAllItemsInOrder() throws Exception {
+        long userId = 10_001L;
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(createItem(userId, "NOTE", "active", "note-" + i).getId());
+        }
+
+        List<Long> seen = collect("/api/item/user/" + userId + "/page", 3);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void exactPageBoundaryHasNoEmptyTrailingPage() throws Exception {
+        long userId = 10_002L;
+        for (int i = 0; i < 4; i++) {
+            createItem(userId, "NOTE", "active", "note-" + i);
+        }
+
+        JsonNode first = page("/api/item/user/" + userId + "/page?size=2");
+        assertTrue(first.get("hasMore").asBoolean());
+        JsonNode second = page("/api/item/user/" + userId + "/page?size=2&cursor=" + first.get("nextCursor").asText());
+        assertEquals(2, second.get("items").size());
+        assertFalse(second.get("hasMore").asBoolean());
+        assertTrue(second.get("nextCursor").isNull());
+
+        JsonNode all = page("/api/item/user/" + userId + "/page?size=4");
+        assertEquals(4, all.get("items").size());
+        assertFalse(all.get("hasMore").asBoolean());
+    }
+
+    @Test
+    void typeAndStatusPagesOnlyReturnMatchingItems() throws Exception {
+        long userId = 10_003L;
+        List<Long> habits = new ArrayList<>();
+        List<Long> done = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Item item = createItem(userId, i % 2 == 0 ? "HABIT" : "NOTE", i % 3 == 0 ? "completed" : "active", "item-" + i);
+            if (i % 2 == 0) {
+                habits.add(item.getId());
+            }
+            if (i % 3 == 0) {
+                done.add(item.getId());
+            }
+        }
+
+        assertEquals(habits, collect("/api/item/user/" + userId + "/type/HABIT/page", 2));
+        assertEquals(done, collect("/api/item/user/" + userId + "/status/completed/page", 1));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        long userId = 10_004L;
+        mockMvc.perform(get("/api/item/user/{userId}/page", userId).param("cursor", "not-a-cursor!"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/item/user/{userId}/type/NOTE/page", userId).param("cursor", "bm9zZXA"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/item/user/{userId}/status/active/page", userId).param("cursor", "YTpi"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void legacyNullSortOrderIsBackfilledAndPaged() throws Exception {
+        long userId = 10_005L;
+        Item legacy = new Item();
+        legacy.setUserId(userId);
+        legacy.setType("NOTE");
+        legacy.setTitle("legacy");
+        legacy.setStatus("active");
+        legacy = itemRepository.save(legacy);
+        Item recent = createItem(userId, "NOTE", "active", "recent");
+
+        sortOrderBackfillRunner.run(null);
+
+        assertNotNull(itemRepository.findById(legacy.getId()).orElseThrow().getSortOrder());
+        assertEquals(List.of(legacy.getId(), recent.getId()), collect("/api/item/user/" + userId + "/page", 1));
+    }
+
+    private List<Long> collect(String path, int size) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = page(path + "?size=" + size + (cursor != null ? "&cursor=" + cursor : ""));
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            assertTrue(page.get("items").size() <= size);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            assertEquals(cursor != null, page.get("hasMore").asBoolean());
+        } while (cursor != null);
+        return ids;
+    }
+
+    private JsonNode page(String path) throws Exception {
+        String body = mockMvc.perform(get(path)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Item createItem(long userId, String type, String status, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType(type);
+        item.setStatus(status);
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+}
@@ -0,0 +1,101 @@
+package com.hyanhsing.hyanjot.controller;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 数据没变时带If-None-Match的请求直接304，不查库
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemEtagTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void unchangedListAnswers304WithoutQueryingAndChangesAfterWrite() throws Exception {
+        long userId = 100_001L;
+        Item item = createNote(userId, "first");
+
+        MvcResult first = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals(1, first.getResponse().getHeaders("ETag").size());
+
+        Statistics stats = statistics();
+        MvcResult cached = mockMvc.perform(get("/api/item/user/{userId}", userId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified()).andReturn();
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals("", cached.getResponse().getContentAsString());
+
+        item.setTitle("renamed");
+        itemService.updateItem(item);
+        MvcResult changed = mockMvc.perform(get("/api/item/user/{userId}", userId).header("If-None-Match", etag))
+                .andExpect(status().isOk()).andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader("ETag"));
+    }
+
+    @Test
+    void singleItemUsesOwnersVersionAfterFirstLookup() throws Exception {
+        long userId = 100_002L;
+        Item item = createNote(userId, "note");
+
+        // 第一次不知道所属用户，不带ETag
+        MvcResult first = mockMvc.perform(get("/api/item/{id}", item.getId()))
+                .andExpect(status().isOk()).andReturn();
+        assertNull(first.getResponse().getHeader("ETag"));
+
+        String etag = mockMvc.perform(get("/api/item/{id}", item.getId()))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        Statistics stats = statistics();
+        mockMvc.perform(get("/api/item/{id}", item.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        // 同一用户的其他备忘项变化也会让ETag失效（版本按用户计）
+        createNote(userId, "another");
+        mockMvc.perform(get("/api/item/{id}", item.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    private Item createNote(long userId, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
@@ -0,0 +1,133 @@
+package com.hyanhsing.hyanjot.controller;
+
+import com.hyanhsing.hyanjot.cache.ResponseCache;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 同一版本的列表请求直接返回缓存的字节，写入后失效；其他节点的写入在下一次查库检查后失效
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hyanjot.response-cache.db-check-ms:1000}")
+    private long dbCheckMs;
+
+    @Test
+    void repeatedListIsServedFromCacheUntilWrite() throws Exception {
+        long userId = 110_001L;
+        Item item = createNote(userId, "first");
+
+        String body = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("first"));
+
+        long hits = (long) responseCache.stats().get("hits");
+        Statistics stats = statistics();
+        String cached = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(body, cached);
+        assertEquals(hits + 1, (long) responseCache.stats().get("hits"));
+
+        item.setTitle("renamed");
+        itemService.updateItem(item);
+        String changed = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(changed.contains("renamed"));
+        assertFalse(changed.contains("first"));
+    }
+
+    @Test
+    void largeResponseIsGzippedOnlyWhenAccepted() throws Exception {
+        long userId = 110_002L;
+        for (int i = 0; i < 30; i++) {
+            createNote(userId, "note-" + i + "-" + "x".repeat(40));
+        }
+
+        MvcResult plain = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn();
+        assertNull(plain.getResponse().getHeader("Content-Encoding"));
+        String json = plain.getResponse().getContentAsString();
+
+        MvcResult gzipped = mockMvc.perform(get("/api/item/user/{userId}", userId).header("Accept-Encoding", "gzip, br"))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals("gzip", gzipped.getResponse().getHeader("Content-Encoding"));
+        byte[] compressed = gzipped.getResponse().getContentAsByteArray();
+        assertTrue(compressed.length < json.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void writeFromAnotherNodeIsSeenAfterDbCheck() throws Exception {
+        long userId = 110_003L;
+        Item item = createNote(userId, "first");
+        String etag = mockMvc.perform(get("/api/item/user/{userId}", userId))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+
+        // 其他节点的写入直接落库，本节点收不到ItemChangedEvent
+        jdbcTemplate.update("UPDATE item SET title = ?, updated_at = ? WHERE id = ?",
+                "remote", LocalDateTime.now().plusSeconds(1), item.getId());
+        Thread.sleep(dbCheckMs + 100);
+
+        String changed = mockMvc.perform(get("/api/item/user/{userId}", userId).header("If-None-Match", etag))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(changed.contains("remote"));
+    }
+
+    private Item createNote(long userId, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hyanhsing.hyanjot.datasource;
+
+import com.hyanhsing.hyanjot.cache.UserVersionTracker;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.service.ItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 只读事务走副本、写后读主库、副本延迟或不可用时退回主库；增量同步始终读主库
+ *
+ * 副本replica-0指向同一个H2内存库（数据相同，只看路由结果），replica-1是连不上的地址
+ */
+@SpringBootTest(properties = {
+        "hyanjot.datasource.routing.enabled=true",
+        "hyanjot.datasource.replicas[0].url=jdbc:h2:mem:hyanjot;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "hyanjot.datasource.replicas[1].url=jdbc:h2:mem:missing;IFEXISTS=TRUE",
+        "hyanjot.datasource.replicas[1].connection-timeout-ms=250",
+        "hyanjot.datasource.sticky-ms=60000",
+        "hyanjot.datasource.health-check-interval-ms=3600000"
+})
+class ReadReplicaRoutingTests {
+
+    private static final String REPLICA = "replica-0";
+
+    @Autowired
+    private ReadReplicaRouter router;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserVersionTracker versionTracker;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void checkReplicas() {
+        router.heartbeat();
+    }
+
+    @AfterEach
+    void clearContext() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void unreachableReplicaIsExcluded() {
+        assertEquals(List.of(REPLICA), router.healthyReplicas());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaUntilUserWrites() {
+        long userId = 140_001L;
+        RoutingContext.setCurrentUser(userId);
+
+        long replicaReads = router.routedCount(REPLICA);
+        itemService.findPageByUserIdWithDetails(userId, null, 10, false);
+        assertEquals(replicaReads + 1, router.routedCount(REPLICA));
+
+        // 写事务不经过路由
+        long routed = router.routedCount(REPLICA) + router.routedCount(ReadReplicaRouter.PRIMARY);
+        Item item = createNote(userId);
+        assertEquals(routed, router.routedCount(REPLICA) + router.routedCount(ReadReplicaRouter.PRIMARY));
+
+        // 写过之后该用户读主库，能读到刚写的数据
+        long primaryReads = router.routedCount(ReadReplicaRouter.PRIMARY);
+        assertEquals(1, itemService.findPageByUserIdWithDetails(userId, null, 10, false).getItems().size());
+        assertEquals(primaryReads + 1, router.routedCount(ReadReplicaRouter.PRIMARY));
+
+        // 其他用户不受影响
+        RoutingContext.setCurrentUser(140_002L);
+        replicaReads = router.routedCount(REPLICA);
+        itemService.findByIdsWithDetails(List.of(item.getId()), false);
+        assertEquals(replicaReads + 1, router.routedCount(REPLICA));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        jdbcTemplate.update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis() - 60_000);
+        router.checkReplicas();
+        assertTrue(router.healthyReplicas().isEmpty());
+
+        RoutingContext.setCurrentUser(140_003L);
+        long primaryReads = router.routedCount(ReadReplicaRouter.PRIMARY);
+        itemService.findPageByUserIdWithDetails(140_003L, null, 10, false);
+        assertEquals(primaryReads + 1, router.routedCount(ReadReplicaRouter.PRIMARY));
+
+        router.heartbeat();
+        assertEquals(List.of(REPLICA), router.healthyReplicas());
+    }
+
+    @Test
+    void forcedPrimaryBypassesReplica() {
+        long primaryReads = router.routedCount(ReadReplicaRouter.PRIMARY);
+        RoutingContext.runOnPrimary(() -> itemService.findPageByUserIdWithDetails(140_004L, null, 10, false));
+        assertEquals(primaryReads + 1, router.routedCount(ReadReplicaRouter.PRIMARY));
+    }
+
+    @Test
+    void incrementalSyncAlwaysReadsPrimary() {
+        RoutingContext.setCurrentUser(140_005L);
+        long primaryReads = router.routedCount(ReadReplicaRouter.PRIMARY);
+        long replicaReads = router.routedCount(REPLICA);
+        itemService.findChanges(140_005L, null, 10, false);
+        assertEquals(primaryReads + 1, router.routedCount(ReadReplicaRouter.PRIMARY));
+        assertEquals(replicaReads, router.routedCount(REPLICA));
+    }
+
+    @Test
+    void itemRouteResolvesOwnerFromPrimaryOnMiss() {
+        long userId = 140_006L;
+        Item item = createNote(userId);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/item/" + item.getId());
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", item.getId().toString()));
+
+        // 本节点没有记录过这个备忘项的所属用户（只有列表接口会记录）
+        assertNull(versionTracker.ownerOf(item.getId()));
+        new RoutingUserInterceptor(versionTracker, itemRepository).preHandle(request, new MockHttpServletResponse(), null);
+        assertEquals(userId, RoutingContext.currentUser());
+        assertEquals(userId, versionTracker.ownerOf(item.getId()));
+
+        // 刚写过，按用户走主库
+        long primaryReads = router.routedCount(ReadReplicaRouter.PRIMARY);
+        itemService.findByIdsWithDetails(List.of(item.getId()), false);
+        assertEquals(primaryReads + 1, router.routedCount(ReadReplicaRouter.PRIMARY));
+    }
+
+    private Item createNote(long userId) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle("replica");
+        return itemService.createItem(item);
+    }
+}
@@ -0,0 +1,164 @@
+package com.hyanhsing.hyanjot.gateway;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Device;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.DeviceService;
+import com.hyanhsing.hyanjot.service.TodoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.hyanhsing.hyanjot.gateway.GatewayProtocol.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"hyanjot.gateway.enabled=true", "hyanjot.gateway.port=0",
+        "hyanjot.gateway.max-in-flight=2", "hyanjot.gateway.auth-timeout-seconds=1"})
+class DeviceGatewayTests {
+
+    @Autowired
+    private DeviceGatewayServer server;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    void authenticatesOnceThenRunsPipelinedCommands() throws Exception {
+        String token = registerDevice(80_001L);
+        Item todo = createProgressTodo(80_001L, 3);
+        Item otherUsers = createProgressTodo(80_002L, 3);
+
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            send(out, OP_INCREMENT, 1, ByteBuffer.allocate(8).putLong(todo.getId()).flip());
+            assertEquals(STATUS_UNAUTHORIZED, read(in, OP_INCREMENT, 1).get());
+
+            send(out, OP_AUTH, 2, ByteBuffer.wrap(token.getBytes(StandardCharsets.US_ASCII)));
+            ByteBuffer auth = read(in, OP_AUTH, 2);
+            assertEquals(STATUS_OK, auth.get());
+            auth.getLong();
+            assertEquals(80_001L, auth.getLong());
+
+            // 连续发送，不等响应
+            for (int reqId = 10; reqId < 14; reqId++) {
+                send(out, OP_INCREMENT, reqId, ByteBuffer.allocate(8).putLong(todo.getId()).flip());
+            }
+            send(out, OP_FETCH, 20, ByteBuffer.allocate(8).putLong(otherUsers.getId()).flip());
+
+            Map<Integer, ByteBuffer> replies = new HashMap<>();
+            for (int i = 0; i < 5; i++) {
+                int len = in.readUnsignedShort();
+                byte[] frame = new byte[len];
+                in.readFully(frame);
+                ByteBuffer reply = ByteBuffer.wrap(frame);
+                reply.get();
+                replies.put(reply.getShort() & 0xFFFF, reply);
+            }
+            ByteBuffer last = replies.get(13);
+            assertEquals(STATUS_OK, last.get());
+            assertEquals(MODE_PROGRESS, last.get());
+            assertEquals(3, last.getInt());
+            assertEquals(3, last.getInt());
+            assertEquals(1, last.get());
+            assertEquals(STATUS_NOT_FOUND, replies.get(20).get());
+
+            send(out, OP_DECREMENT, 30, ByteBuffer.allocate(8).putLong(todo.getId()).flip());
+            ByteBuffer decremented = read(in, OP_DECREMENT, 30);
+            assertEquals(STATUS_OK, decremented.get());
+            decremented.get();
+            assertEquals(2, decremented.getInt());
+        }
+    }
+
+    @Test
+    void pipelinedFramesBeyondInFlightLimitAreProcessedInOrder() throws Exception {
+        String token = registerDevice(80_003L);
+        Item todo = createProgressTodo(80_003L, 100);
+
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            send(out, OP_AUTH, 1, ByteBuffer.wrap(token.getBytes(StandardCharsets.US_ASCII)));
+            assertEquals(STATUS_OK, read(in, OP_AUTH, 1).get());
+
+            // 一次写出16帧，远超上限2：超出的帧留在读缓冲里，前面的响应写出后才继续拆帧
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            DataOutputStream batchOut = new DataOutputStream(batch);
+            for (int reqId = 10; reqId < 26; reqId++) {
+                send(batchOut, OP_INCREMENT, reqId, ByteBuffer.allocate(8).putLong(todo.getId()).flip());
+            }
+            out.write(batch.toByteArray());
+            out.flush();
+
+            for (int reqId = 10; reqId < 26; reqId++) {
+                ByteBuffer reply = read(in, OP_INCREMENT, reqId);
+                assertEquals(STATUS_OK, reply.get());
+                reply.get();
+                assertEquals(reqId - 9, reply.getInt());
+            }
+        }
+    }
+
+    @Test
+    void connectionWithoutAuthIsClosed() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(5000);
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    private void send(DataOutputStream out, int op, int reqId, ByteBuffer payload) throws Exception {
+        out.writeShort(HEADER + payload.remaining());
+        out.writeByte(op);
+        out.writeShort(reqId);
+        out.write(payload.array(), payload.position(), payload.remaining());
+        out.flush();
+    }
+
+    private ByteBuffer read(DataInputStream in, int op, int reqId) throws Exception {
+        int len = in.readUnsignedShort();
+        byte[] frame = new byte[len];
+        in.readFully(frame);
+        ByteBuffer reply = ByteBuffer.wrap(frame);
+        assertEquals(op | REPLY_FLAG, reply.get() & 0xFF);
+        assertEquals(reqId, reply.getShort() & 0xFFFF);
+        return reply;
+    }
+
+    private String registerDevice(Long userId) {
+        String token = UUID.randomUUID().toString().replace("-", "");
+        Device device = new Device();
+        device.setUserId(userId);
+        device.setDeviceName("gateway-test");
+        device.setDeviceToken(token);
+        deviceService.registerDevice(device);
+        return token;
+    }
+
+    private Item createProgressTodo(Long userId, int total) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle("gateway");
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        dto.setProgressMode(true);
+        dto.setProgressTotal(total);
+        return todoService.createTodo(dto);
+    }
+}
@@ -0,0 +1,100 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 大量并发连接下的吞吐量和延迟，默认不运行
+ *
+ * 平台线程：mvn test -Dtest=ConcurrentConnectionLoadTests -Dhyanjot.loadtest=true
+ * 虚拟线程（JDK 21）：再加 -Dspring.threads.virtual.enabled=true
+ * 并发连接数 -Dhyanjot.loadtest.connections=5000，每个连接的请求数 -Dhyanjot.loadtest.rounds=4
+ */
+@EnabledIfSystemProperty(named = "hyanjot.loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.accept-count=10000",
+        "spring.datasource.hikari.maximum-pool-size=10"
+})
+class ConcurrentConnectionLoadTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void reportsThroughputAndLatencyUnderConcurrentConnections() throws Exception {
+        int connections = Integer.getInteger("hyanjot.loadtest.connections", 5000);
+        int rounds = Integer.getInteger("hyanjot.loadtest.rounds", 4);
+        long userId = 900_001L;
+        for (int i = 0; i < 50; i++) {
+            Item item = new Item();
+            item.setUserId(userId);
+            item.setType("NOTE");
+            item.setTitle("load " + i);
+            itemService.createItem(item);
+        }
+        // 增量同步接口不走响应缓存，每次都查库
+        URI uri = URI.create("http://localhost:" + port + "/api/item/user/" + userId + "/changes?size=20&subtasks=false");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        int total = connections * rounds;
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(connections);
+        List<CompletableFuture<?>> futures = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[next.getAndIncrement()] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((r, e) -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s线程, %d并发连接, %d请求: 吞吐 %.0f req/s, p50 %.1fms, p99 %.1fms, max %.1fms, 失败 %d%n",
+                virtualThreads ? "虚拟" : "平台", connections, total,
+                total / (elapsed / 1e9),
+                latencies[total / 2] / 1e6, latencies[(int) (total * 0.99)] / 1e6, latencies[total - 1] / 1e6,
+                errors.get());
+        assertTrue(errors.get() <= total / 100, "失败请求过多: " + errors.get());
+    }
+}
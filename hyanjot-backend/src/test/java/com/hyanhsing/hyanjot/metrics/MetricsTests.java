@@ -0,0 +1,105 @@
+package com.hyanhsing.hyanjot.metrics;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.TodoService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 路由延迟带caller标签、每个请求的语句数和JSON耗时都能从/actuator/prometheus抓到
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    void routesAreTaggedByCaller() throws Exception {
+        long userId = 250_001L;
+        Long itemId = createProgressTodo(userId);
+
+        mockMvc.perform(put("/api/item/{id}/progress/increment", itemId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/item/user/{userId}", userId)).andExpect(status().isOk());
+
+        Timer hardware = meterRegistry.find("http.server.requests")
+                .tags("uri", "/api/item/{id}/progress/increment", "caller", CallerType.HARDWARE).timer();
+        assertNotNull(hardware);
+        assertTrue(hardware.count() >= 1);
+        Timer web = meterRegistry.find("http.server.requests")
+                .tags("uri", "/api/item/user/{userId}", "caller", CallerType.WEB).timer();
+        assertNotNull(web);
+        assertTrue(web.count() >= 1);
+    }
+
+    @Test
+    void statementsPerRequestAreRecorded() throws Exception {
+        Long itemId = createProgressTodo(250_002L);
+
+        mockMvc.perform(put("/api/item/{id}/progress/increment", itemId)).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find("hyanjot.http.hibernate.statements")
+                .tags("uri", "/api/item/{id}/progress/increment", "caller", CallerType.HARDWARE).summary();
+        assertNotNull(statements);
+        // 条件UPDATE + 读取新状态（见TodoProgressConcurrencyTests），再加上增量同步更新item.updated_at
+        assertEquals(3.0, statements.max());
+    }
+
+    @Test
+    void prometheusEndpointExportsApplicationMetrics() throws Exception {
+        long userId = 250_003L;
+        mockMvc.perform(post("/api/item").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"type\":\"NOTE\",\"title\":\"metrics\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/item/user/{userId}", userId)).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket"));
+        assertTrue(scrape.contains("caller=\"web\""));
+        assertTrue(scrape.contains("hyanjot_http_hibernate_statements_bucket"));
+        assertTrue(scrape.contains("hyanjot_json_seconds_count{operation=\"read\",type=\"Item\"}"));
+        assertTrue(scrape.contains("hyanjot_json_seconds_count{operation=\"write\",type=\"cached-all\"}"));
+        assertTrue(scrape.contains("hikaricp_connections_pending"));
+        assertTrue(scrape.contains("cache_gets_total{cache=\"response\""));
+    }
+
+    private Long createProgressTodo(long userId) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle("metrics");
+        dto.setDeadline(LocalDate.now().plusDays(7));
+        dto.setPriority("medium");
+        dto.setProgressMode(true);
+        dto.setProgressTotal(10);
+        Item item = todoService.createTodo(dto);
+        return item.getId();
+    }
+}
@@ -0,0 +1,144 @@
+package com.hyanhsing.hyanjot.push;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一个客户端不读（发送阻塞）时，其他用户的推送和心跳照常进行；积压超限、发送超时的连接被断开
+ */
+class PushHubBackpressureTests {
+
+    private PushHub hub;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        hub = new PushHub();
+        ReflectionTestUtils.setField(hub, "bufferSize", 16);
+        ReflectionTestUtils.setField(hub, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(hub, "idleChannelMs", 60_000L);
+        ReflectionTestUtils.setField(hub, "senderThreads", 2);
+        ReflectionTestUtils.setField(hub, "maxBacklog", 4);
+        ReflectionTestUtils.setField(hub, "sendTimeoutMs", 200L);
+        hub.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hub.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberDoesNotBlockOtherUsers() throws InterruptedException {
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        hub.subscribe(1L, null, stalled);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        hub.subscribe(2L, null, healthy);
+
+        for (int i = 0; i < 3; i++) {
+            hub.publish(2L, "item", "event-" + i);
+        }
+        // hello + 3条事件
+        assertTrue(healthy.awaitSent(4), "已发送: " + healthy.sent.get());
+        hub.heartbeat();
+        assertTrue(healthy.awaitSent(5), "已发送: " + healthy.sent.get());
+        assertEquals(0, stalled.sent.get());
+    }
+
+    @Test
+    void subscriberFallingBehindBacklogIsDropped() throws InterruptedException {
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        hub.subscribe(1L, null, stalled);
+        assertEquals(1, hub.subscriberCount());
+        assertTrue(stalled.sending.await(2, TimeUnit.SECONDS));
+
+        // hello卡在发送中，队列上限4条，第5条超限
+        for (int i = 0; i < 5; i++) {
+            hub.publish(1L, "item", "event-" + i);
+        }
+        assertEquals(0, hub.subscriberCount());
+
+        release.countDown();
+        assertTrue(stalled.completed.await(2, TimeUnit.SECONDS));
+        // 断开后积压的事件不再发送，客户端重连时从缓冲补发
+        assertEquals(1, stalled.sent.get());
+    }
+
+    @Test
+    void stalledSendsDoNotUseUpSenderThreads() throws InterruptedException {
+        // 两个发送线程都卡住
+        RecordingEmitter first = new RecordingEmitter(release);
+        hub.subscribe(1L, null, first);
+        RecordingEmitter second = new RecordingEmitter(release);
+        hub.subscribe(3L, null, second);
+        assertTrue(first.sending.await(2, TimeUnit.SECONDS));
+        assertTrue(second.sending.await(2, TimeUnit.SECONDS));
+
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        hub.subscribe(2L, null, healthy);
+        Thread.sleep(300);
+        assertEquals(0, healthy.sent.get());
+
+        // 发送超时：卡住的连接断开，各补一个线程，排队的hello发出
+        hub.checkStalledSends();
+        assertEquals(1, hub.subscriberCount());
+        assertTrue(healthy.awaitSent(1), "已发送: " + healthy.sent.get());
+
+        release.countDown();
+        assertTrue(first.completed.await(2, TimeUnit.SECONDS));
+        assertTrue(second.completed.await(2, TimeUnit.SECONDS));
+        hub.publish(2L, "item", "after");
+        assertTrue(healthy.awaitSent(2), "已发送: " + healthy.sent.get());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch block;
+        private final AtomicInteger sent = new AtomicInteger();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        boolean awaitSent(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (sent.get() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.get() >= expected;
+        }
+    }
+}
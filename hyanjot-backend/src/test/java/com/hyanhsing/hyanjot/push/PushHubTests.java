@@ -0,0 +1,97 @@
+package com.hyanhsing.hyanjot.push;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * 订阅后能收到备忘项变更；带Last-Event-ID重连只补发错过的事件
+ */
+@SpringBootTest
+// 事件由发送线程写入响应，MockMvc打印结果时遍历响应头会与之并发（MockHttpServletResponse不是线程安全的）
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class PushHubTests {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void pushesItemChangesAndResumesFromLastEventId() throws Exception {
+        long userId = 70_001L;
+        MockHttpServletResponse first = subscribe(userId, null);
+        awaitContent(first, "event:hello");
+
+        Item created = createItem(userId, "first");
+        String afterFirst = awaitContent(first, "\"itemId\":" + created.getId());
+        String firstEventId = lastId(afterFirst);
+
+        Item second = createItem(userId, "second");
+        awaitContent(first, "\"itemId\":" + second.getId());
+
+        // 从第一条事件之后重连，只补发第二条
+        String resumed = awaitContent(subscribe(userId, firstEventId), "\"itemId\":" + second.getId());
+        assertFalse(resumed.contains("\"itemId\":" + created.getId()));
+    }
+
+    @Test
+    void unknownEventIdAsksForFullReload() throws Exception {
+        awaitContent(subscribe(70_002L, "stale-42"), "event:reset");
+    }
+
+    private MockHttpServletResponse subscribe(long userId, String lastEventId) throws Exception {
+        var builder = get("/api/push/user/{userId}", userId);
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return result.getResponse();
+    }
+
+    private Item createItem(long userId, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+
+    private String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+
+    private String lastId(String content) {
+        Matcher matcher = EVENT_ID.matcher(content);
+        String id = null;
+        while (matcher.find()) {
+            id = matcher.group(1);
+        }
+        return id;
+    }
+}
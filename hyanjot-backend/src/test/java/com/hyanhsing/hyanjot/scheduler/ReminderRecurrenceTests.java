@@ -0,0 +1,58 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReminderRecurrenceTests {
+
+    @Test
+    void monthlyOnThe31stClampsWithoutDrifting() {
+        LocalDateTime anchor = LocalDateTime.of(2026, 1, 31, 9, 0);
+        LocalDateTime feb = ReminderRecurrence.next(anchor, "monthly", anchor);
+        assertEquals(LocalDateTime.of(2026, 2, 28, 9, 0), feb);
+        // 3月回到31日，而不是沿用2月的28日
+        assertEquals(LocalDateTime.of(2026, 3, 31, 9, 0), ReminderRecurrence.next(anchor, "monthly", feb));
+        assertEquals(LocalDateTime.of(2028, 2, 29, 9, 0),
+                ReminderRecurrence.next(anchor, "monthly", LocalDateTime.of(2028, 2, 1, 0, 0)));
+    }
+
+    @Test
+    void skipsMissedOccurrencesAfterDowntime() {
+        LocalDateTime anchor = LocalDateTime.of(2026, 1, 1, 8, 30);
+        LocalDateTime after = LocalDateTime.of(2026, 3, 10, 12, 0);
+        assertEquals(LocalDateTime.of(2026, 3, 11, 8, 30), ReminderRecurrence.next(anchor, "daily", after));
+        // 1月1日是周四，3月10日之后的第一个周四是3月12日
+        assertEquals(LocalDateTime.of(2026, 3, 12, 8, 30), ReminderRecurrence.next(anchor, "weekly", after));
+        assertEquals(LocalDateTime.of(2026, 4, 1, 8, 30), ReminderRecurrence.next(anchor, "monthly", after));
+        // 恰好等于after时取下一次
+        assertEquals(LocalDateTime.of(2026, 1, 2, 8, 30), ReminderRecurrence.next(anchor, "daily", anchor));
+    }
+
+    @Test
+    void nonRecurringHasNoNextOccurrence() {
+        LocalDateTime anchor = LocalDateTime.of(2026, 1, 1, 8, 30);
+        assertNull(ReminderRecurrence.next(anchor, "none", anchor));
+        assertNull(ReminderRecurrence.next(anchor, null, anchor));
+    }
+
+    @Test
+    void dailyKeepsWallClockTimeAcrossDstAndGapShiftsForward() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        LocalDateTime anchor = LocalDateTime.of(2026, 3, 7, 9, 0);
+        LocalDateTime afterDst = ReminderRecurrence.next(anchor, "daily", anchor);
+        assertEquals(LocalDateTime.of(2026, 3, 8, 9, 0), afterDst);
+        assertEquals(ZonedDateTime.of(2026, 3, 8, 9, 0, 0, 0, newYork).toInstant().toEpochMilli(),
+                ReminderRecurrence.toEpochMilli(afterDst, newYork));
+
+        // 2026-03-08 02:30在纽约不存在，顺延到03:30
+        LocalDateTime inGap = LocalDateTime.of(2026, 3, 8, 2, 30);
+        assertEquals(ZonedDateTime.of(2026, 3, 8, 3, 30, 0, 0, newYork).toInstant().toEpochMilli(),
+                ReminderRecurrence.toEpochMilli(inGap, newYork));
+    }
+}
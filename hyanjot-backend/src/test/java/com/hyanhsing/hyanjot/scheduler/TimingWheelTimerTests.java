@@ -0,0 +1,108 @@
+package com.hyanhsing.hyanjot.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTimerTests {
+
+    private TimingWheelTimer timer;
+    private Thread driver;
+
+    @BeforeEach
+    void setUp() {
+        timer = new TimingWheelTimer(1, 8, Runnable::run);
+        driver = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    timer.advanceClock(50);
+                }
+            } catch (InterruptedException ignored) {
+                // 测试结束
+            }
+        });
+        driver.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        driver.interrupt();
+        driver.join();
+    }
+
+    @Test
+    void firesInOrderAcrossWheelLevels() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        List<Long> firedAt = new CopyOnWriteArrayList<>();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(4);
+        // 8格一层：5ms在第一层，60ms、300ms、700ms分别落在更高层
+        long[] delays = {700, 5, 300, 60};
+        for (int i = 0; i < delays.length; i++) {
+            int index = i;
+            long expiration = now + delays[i];
+            timer.schedule(expiration, () -> {
+                firedAt.add(System.currentTimeMillis() - expiration);
+                order.add(index);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 3, 2, 0), order);
+        // 不会提前触发，延迟也在可接受范围内
+        assertTrue(firedAt.stream().allMatch(late -> late >= 0 && late < 100), firedAt.toString());
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    void concurrentLongDelaySchedulesShareOverflowWheels() throws InterruptedException {
+        // 各线程同时调度第一批超出第一层范围的任务，上层时间轮只能创建一个，否则其中一批永远不会触发
+        int threads = 8;
+        int perThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch fired = new CountDownLatch(threads * perThread);
+        long expiration = System.currentTimeMillis() + 300;
+        List<Thread> schedulers = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    timer.schedule(expiration + i, fired::countDown);
+                }
+            });
+            schedulers.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : schedulers) {
+            thread.join();
+        }
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS), "未触发: " + fired.getCount());
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    void expiredTaskRunsImmediatelyAndCancelledTaskNever() throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(1);
+        timer.schedule(System.currentTimeMillis() - 1000, expired::countDown);
+        assertEquals(0, expired.getCount());
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        timer.schedule(System.currentTimeMillis() + 30, cancelled::countDown).cancel();
+        assertTrue(!cancelled.await(200, TimeUnit.MILLISECONDS));
+    }
+}
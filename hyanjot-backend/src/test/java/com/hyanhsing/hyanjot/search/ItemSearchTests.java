@@ -0,0 +1,103 @@
+package com.hyanhsing.hyanjot.search;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import com.hyanhsing.hyanjot.service.TodoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 中文二元组分词、前缀匹配，以及写入后索引的增量更新
+ */
+@SpringBootTest(properties = "hyanjot.search.enabled=true")
+class ItemSearchTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Test
+    void tokenizerSplitsCjkIntoUnigramsAndBigrams() {
+        assertEquals(Set.of("买", "牛", "奶", "买牛", "牛奶", "2", "盒", "milk"),
+                SearchTokenizer.indexTokens("买牛奶2盒 Milk!"));
+        assertEquals(List.of(new SearchTokenizer.QueryToken("牛奶", false), new SearchTokenizer.QueryToken("abc", true)),
+                SearchTokenizer.queryTokens("牛奶 ＡＢＣ"));
+        assertEquals(List.of(new SearchTokenizer.QueryToken("奶", false)), SearchTokenizer.queryTokens("奶"));
+    }
+
+    @Test
+    void searchFindsTitlesContentsAndSubtasksAndFollowsWrites() throws Exception {
+        long userId = 130_001L;
+        Item note = createNote(userId, "周末计划", "去超市买牛奶和面包");
+        Item todo = createTodo(userId, "准备出差", "整理行李箱");
+        createNote(userId, "Quarterly report", "draft the summary");
+        searchIndex.awaitIndexed(5000);
+
+        assertEquals(List.of(note.getId()), ids(userId, "牛奶"));
+        assertEquals(List.of(todo.getId()), ids(userId, "行李"));
+        assertEquals(1, ids(userId, "quart").size());
+        assertTrue(ids(userId, "牛奶 出差").isEmpty());
+        assertTrue(ids(130_002L, "牛奶").isEmpty());
+
+        note.setTitle("采购清单");
+        note.setContent("鸡蛋");
+        itemService.updateItem(note);
+        searchIndex.awaitIndexed(5000);
+        assertTrue(ids(userId, "牛奶").isEmpty());
+        assertEquals(List.of(note.getId()), ids(userId, "采购"));
+
+        itemService.deleteItem(todo.getId());
+        searchIndex.awaitIndexed(5000);
+        assertTrue(ids(userId, "行李").isEmpty());
+    }
+
+    @Test
+    void titleMatchesRankAboveBodyMatches() throws Exception {
+        long userId = 130_003L;
+        Item body = createNote(userId, "杂项", "记得交房租");
+        Item title = createNote(userId, "交房租", null);
+        searchIndex.awaitIndexed(5000);
+
+        assertEquals(List.of(title.getId(), body.getId()), ids(userId, "房租"));
+    }
+
+    private List<Long> ids(long userId, String query) {
+        return itemService.search(userId, query, null).stream().map(Item::getId).toList();
+    }
+
+    private Item createNote(long userId, String title, String content) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        item.setContent(content);
+        return itemService.createItem(item);
+    }
+
+    private Item createTodo(long userId, String title, String subtaskText) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle(title);
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        dto.setProgressMode(false);
+        TodoCreateDTO.SubtaskDTO subtask = new TodoCreateDTO.SubtaskDTO();
+        subtask.setText(subtaskText);
+        dto.setSubtasks(List.of(subtask));
+        return todoService.createTodo(dto);
+    }
+}
@@ -0,0 +1,142 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.SubtaskRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量导入与逐条创建的对比：语句数（即往返次数），行数只需超过几个批次
+ */
+@SpringBootTest
+class BulkImportStatementCountTests {
+
+    private static final int ROWS = 300;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bulkTodoImportUsesFarFewerStatementsThanPerItemPath() {
+        List<TodoCreateDTO> perItem = todos(30_001L);
+        Statistics stats = statistics();
+        for (TodoCreateDTO dto : perItem) {
+            todoService.createTodo(dto);
+        }
+        long perItemStatements = stats.getPrepareStatementCount();
+
+        List<TodoCreateDTO> bulk = todos(30_002L);
+        stats.clear();
+        List<Long> ids = todoService.createTodos(bulk);
+        long bulkStatements = stats.getPrepareStatementCount();
+
+        assertEquals(ROWS, ids.size());
+        assertEquals(ROWS, itemRepository.findByUserIdOrderBySortOrderAsc(30_002L).size());
+        assertEquals(ROWS / 2, subtaskRepository.findByTodoIdInOrderByTodoIdAscPositionAscIdAsc(ids.subList(0, ROWS / 2)).size());
+        // 逐条：每个TODO三条INSERT；批量：每张表每100行一批，加上号段分配
+        assertTrue(perItemStatements >= 3L * ROWS);
+        assertTrue(bulkStatements * 10 < perItemStatements,
+                "批量导入语句数应远少于逐条创建: " + bulkStatements);
+    }
+
+    @Test
+    void bulkUpdateAndDeleteAreBatched() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Item item = new Item();
+            item.setUserId(30_003L);
+            item.setType("NOTE");
+            item.setTitle("note " + i);
+            items.add(item);
+        }
+        List<Long> ids = itemService.createItems(items);
+
+        List<Item> patches = new ArrayList<>();
+        for (Long id : ids) {
+            Item patch = new Item();
+            patch.setId(id);
+            patch.setStatus("completed");
+            patches.add(patch);
+        }
+        Statistics stats = statistics();
+        assertEquals(ROWS, itemService.updateItems(patches));
+        // 每块一次IN查询 + 每100行一批UPDATE
+        assertTrue(stats.getPrepareStatementCount() < ROWS / 20, "批量更新语句数: " + stats.getPrepareStatementCount());
+        assertEquals("completed", itemRepository.findById(ids.get(0)).orElseThrow().getStatus());
+        assertEquals("note 0", itemRepository.findById(ids.get(0)).orElseThrow().getTitle());
+
+        stats.clear();
+        assertEquals(ROWS, itemService.deleteItems(ids));
+        assertTrue(stats.getPrepareStatementCount() < ROWS / 20, "批量删除语句数: " + stats.getPrepareStatementCount());
+        assertTrue(itemRepository.findByUserIdOrderBySortOrderAsc(30_003L).isEmpty());
+    }
+
+    @Test
+    void failedChunkReportsCommittedRowsAndKeepsCause() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            Item item = new Item();
+            item.setUserId(i < 1000 ? 30_004L : null);
+            item.setType("NOTE");
+            item.setTitle("note " + i);
+            items.add(item);
+        }
+        // 第二块缺用户ID：第一块（chunk-size默认1000）已提交，原始异常保留，按请求数据有误处理
+        BulkWriteException e = assertThrows(BulkWriteException.class, () -> itemService.createItems(items));
+        assertEquals(1000, e.getCommitted());
+        assertTrue(e.isInvalidRequest());
+        assertInstanceOf(NullPointerException.class, e.getCause());
+        assertEquals(1000, itemRepository.findByUserIdOrderBySortOrderAsc(30_004L).size());
+    }
+
+    private List<TodoCreateDTO> todos(long userId) {
+        List<TodoCreateDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            TodoCreateDTO dto = new TodoCreateDTO();
+            dto.setUserId(userId);
+            dto.setTitle("todo " + i);
+            dto.setDeadline(LocalDate.now().plusDays(7));
+            dto.setPriority("medium");
+            dto.setProgressMode(false);
+            TodoCreateDTO.SubtaskDTO subtask = new TodoCreateDTO.SubtaskDTO();
+            subtask.setText("step");
+            dto.setSubtasks(List.of(subtask));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
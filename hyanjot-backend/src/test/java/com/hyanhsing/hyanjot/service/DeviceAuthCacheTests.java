@@ -0,0 +1,113 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.entity.Device;
+import com.hyanhsing.hyanjot.repository.DeviceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 设备认证走Token缓存，心跳只写内存，定时批量写库
+ */
+@SpringBootTest
+class DeviceAuthCacheTests {
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void repeatedAuthAndHeartbeatHitNoDatabase() {
+        Device device = register();
+        assertTrue(deviceService.findByDeviceToken(device.getDeviceToken()).isPresent());
+
+        Statistics stats = statistics();
+        for (int i = 0; i < 100; i++) {
+            Device cached = deviceService.findByDeviceToken(device.getDeviceToken()).orElseThrow();
+            deviceService.updateLastOnline(cached.getId());
+        }
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertNull(deviceRepository.findById(device.getId()).orElseThrow().getLastOnline());
+    }
+
+    @Test
+    void heartbeatsAreFlushedInOneBatch() {
+        Device first = register();
+        Device second = register();
+        deviceService.updateLastOnline(first.getId());
+        deviceService.updateLastOnline(second.getId());
+        deviceService.updateLastOnline(first.getId());
+
+        assertEquals(2, deviceService.flushLastOnline());
+        assertNotNull(deviceRepository.findById(first.getId()).orElseThrow().getLastOnline());
+        assertNotNull(deviceRepository.findById(second.getId()).orElseThrow().getLastOnline());
+        assertEquals(0, deviceService.flushLastOnline());
+    }
+
+    @Test
+    void deleteAndRegisterInvalidateCachedToken() {
+        String token = UUID.randomUUID().toString().replace("-", "");
+        // 未注册的Token也会被缓存，注册后必须能认证通过
+        assertTrue(deviceService.findByDeviceToken(token).isEmpty());
+        Device device = register(token);
+        assertTrue(deviceService.findByDeviceToken(token).isPresent());
+
+        deviceService.deleteDevice(device.getId());
+        assertTrue(deviceService.findByDeviceToken(token).isEmpty());
+    }
+
+    @Test
+    void authDuringDeleteDoesNotRecacheDeletedDevice() throws Exception {
+        Device device = register();
+        String token = device.getDeviceToken();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            deviceService.deleteDevice(device.getId());
+            // 删除还没提交时，其他线程的认证读到的仍是旧数据，会重新放进缓存
+            CompletableFuture<Boolean> concurrentAuth = CompletableFuture.supplyAsync(
+                    () -> deviceService.findByDeviceToken(token).isPresent());
+            assertTrue(concurrentAuth.join());
+        });
+
+        assertTrue(deviceService.findByDeviceToken(token).isEmpty());
+    }
+
+    private Device register() {
+        return register(UUID.randomUUID().toString().replace("-", ""));
+    }
+
+    private Device register(String token) {
+        Device device = new Device();
+        device.setUserId(60_000L);
+        device.setDeviceName("hyanjot-" + token.substring(0, 6));
+        device.setDeviceToken(token);
+        return deviceService.registerDevice(device);
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
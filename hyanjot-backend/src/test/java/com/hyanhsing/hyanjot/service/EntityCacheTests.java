@@ -0,0 +1,154 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.cache.EntityCacheStats;
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.HabitItem;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.User;
+import com.hyanhsing.hyanjot.repository.HabitItemRepository;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 二级缓存：按ID读取和用户名查询命中缓存时不查库，写入后读到新值
+ */
+@SpringBootTest
+class EntityCacheTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private HabitItemRepository habitItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void userLookupsAreServedFromCacheUntilUpdated() {
+        User user = new User();
+        user.setUsername("cache-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("secret");
+        user = userRepository.save(user);
+        // 第一次按用户名查询填充查询缓存
+        userRepository.findByUsername(user.getUsername()).orElseThrow();
+
+        Statistics stats = statistics();
+        assertEquals(user.getId(), userRepository.findById(user.getId()).orElseThrow().getId());
+        assertEquals(user.getId(), userRepository.findByUsername(user.getUsername()).orElseThrow().getId());
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(1, stats.getQueryCacheHitCount());
+
+        user.setNickname("renamed");
+        userRepository.save(user);
+        assertEquals("renamed", userRepository.findById(user.getId()).orElseThrow().getNickname());
+        assertEquals("renamed", userRepository.findByUsername(user.getUsername()).orElseThrow().getNickname());
+    }
+
+    @Test
+    void habitDetailsSkipSubtypeQueryOnceCached() {
+        Long habitId = createHabit(150_001L);
+        itemService.findByIdWithDetails(habitId).orElseThrow();
+
+        Statistics stats = statistics();
+        Item item = itemService.findByIdWithDetails(habitId).orElseThrow();
+        assertEquals("daily", item.getHabitItem().getRepeatRule());
+        assertEquals(1, stats.getDomainDataRegionStatistics("habit-item").getHitCount());
+        // 只查item，不再查habit_item
+        long cachedStatements = stats.getPrepareStatementCount();
+        assertEquals(1, cachedStatements);
+
+        // 更新后缓存的是新值，仍然命中
+        habitService.checkIn(habitId, LocalDate.now());
+        stats.clear();
+        assertEquals(1, itemService.findByIdWithDetails(habitId).orElseThrow().getHabitItem().getStreakDays());
+        assertEquals(cachedStatements, stats.getPrepareStatementCount());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> regions = (Map<String, Object>) entityCacheStats.stats().get("regions");
+        assertTrue(regions.keySet().containsAll(List.of("user", "device", "habit-item")));
+    }
+
+    /**
+     * 进度和子任务计数走JPQL原子更新，TodoItem不进二级缓存，更新后立即读到新值
+     */
+    @Test
+    void todoProgressIsFreshAfterAtomicUpdate() {
+        Item todo = createTodo(150_002L);
+        itemService.findByIdWithDetails(todo.getId()).orElseThrow();
+        itemService.findById(todo.getId()).orElseThrow();
+
+        assertEquals(1, todoService.incrementProgress(todo.getId()).getProgressCurrent());
+        assertEquals(1, itemService.findByIdWithDetails(todo.getId()).orElseThrow().getTodoItem().getProgressCurrent());
+        assertEquals(2, todoService.incrementProgress(todo.getId()).getProgressCurrent());
+    }
+
+    private Long createHabit(long userId) {
+        // 子表通过@MapsId共享主键，需要与Item在同一事务中保存
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Item item = new Item();
+            item.setUserId(userId);
+            item.setType("HABIT");
+            item.setTitle("cached habit");
+            item.setStatus("active");
+            item.setSortOrder(0);
+            item = itemRepository.save(item);
+            HabitItem habitItem = new HabitItem();
+            habitItem.setItem(item);
+            habitItem.setRepeatRule("daily");
+            return habitItemRepository.save(habitItem).getId();
+        });
+    }
+
+    private Item createTodo(long userId) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle("cached todo");
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("high");
+        dto.setProgressMode(true);
+        dto.setProgressTotal(10);
+        return todoService.createTodo(dto);
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
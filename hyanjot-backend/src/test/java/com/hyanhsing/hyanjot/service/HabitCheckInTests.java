@@ -0,0 +1,135 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.HabitStats;
+import com.hyanhsing.hyanjot.entity.HabitCheckYear;
+import com.hyanhsing.hyanjot.entity.HabitItem;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.repository.HabitItemRepository;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class HabitCheckInTests {
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private HabitItemRepository habitItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void checkInSetsBitAndStreakCountsBackFromToday() {
+        Long id = createHabit(null);
+        LocalDate today = LocalDate.now();
+        habitService.checkIn(id, today.minusDays(2));
+        habitService.checkIn(id, today.minusDays(1));
+        HabitStats stats = habitService.checkIn(id, null);
+        assertEquals(3, stats.getStreakDays());
+        assertEquals(today, stats.getLastCheckDate());
+
+        // 重复打卡不变
+        assertEquals(3, habitService.checkIn(id, today).getTotalChecks());
+
+        // 今天取消后从昨天往前数
+        stats = habitService.undoCheckIn(id, today);
+        assertEquals(2, stats.getStreakDays());
+        assertEquals(today.minusDays(1), stats.getLastCheckDate());
+
+        HabitItem habit = habitItemRepository.findById(id).orElseThrow();
+        assertEquals(2, habit.getStreakDays());
+        assertEquals(today.minusDays(1), habit.getLastCheckDate());
+
+        HabitCheckYear year = habitService.getYear(id, today.minusDays(1).getYear());
+        assertEquals(HabitCheckYear.BYTES, year.getDays().length);
+        assertTrue(year.isChecked(today.minusDays(1)));
+        assertFalse(year.isChecked(today));
+    }
+
+    @Test
+    void longestStreakJoinsAcrossYearBoundary() {
+        Long id = createHabit(null);
+        int y = LocalDate.now().getYear() - 2;
+        habitService.checkIn(id, LocalDate.of(y, 12, 30));
+        habitService.checkIn(id, LocalDate.of(y, 12, 31));
+        habitService.checkIn(id, LocalDate.of(y + 1, 1, 1));
+        habitService.checkIn(id, LocalDate.of(y + 1, 1, 2));
+        habitService.checkIn(id, LocalDate.of(y + 1, 3, 1));
+        HabitStats stats = habitService.getStats(id);
+        assertEquals(4, stats.getLongestStreak());
+        assertEquals(5, stats.getTotalChecks());
+        assertEquals(0, stats.getStreakDays());
+        assertEquals(LocalDate.of(y + 1, 3, 1), stats.getLastCheckDate());
+    }
+
+    @Test
+    void migratesJsonHistoryIntoBitmap() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Long id = createHabit("[\"" + yesterday.minusDays(1) + "\", \"" + yesterday + "T08:00:00\", "
+                + "{\"date\": \"2024-02-29\"}, \"not-a-date\"]");
+        assertTrue(habitService.findIdsWithCheckHistory().contains(id));
+
+        assertEquals(3, habitService.migrateCheckHistory(id));
+        assertFalse(habitService.findIdsWithCheckHistory().contains(id));
+        assertNull(habitItemRepository.findById(id).orElseThrow().getCheckHistory());
+
+        HabitStats stats = habitService.getStats(id);
+        assertEquals(2, stats.getStreakDays());
+        assertEquals(3, stats.getTotalChecks());
+        assertTrue(habitService.getYear(id, 2024).isChecked(LocalDate.of(2024, 2, 29)));
+    }
+
+    @Test
+    void checkInMigratesPendingJsonHistory() {
+        LocalDate today = LocalDate.now();
+        Long id = createHabit("[\"" + today.minusDays(2) + "\", \"" + today.minusDays(1) + "\"]");
+
+        // 未迁移时统计和位图也包含旧历史
+        assertEquals(2, habitService.getStats(id).getStreakDays());
+        assertTrue(habitService.getYear(id, today.minusDays(1).getYear()).isChecked(today.minusDays(1)));
+        assertTrue(habitService.findIdsWithCheckHistory().contains(id));
+
+        HabitStats stats = habitService.checkIn(id, today);
+        assertEquals(3, stats.getStreakDays());
+        assertEquals(3, stats.getTotalChecks());
+        HabitItem habit = habitItemRepository.findById(id).orElseThrow();
+        assertNull(habit.getCheckHistory());
+        assertEquals(3, habit.getStreakDays());
+        assertEquals(0, habitService.migrateCheckHistory(id));
+        assertEquals(3, habitService.getStats(id).getTotalChecks());
+    }
+
+    private Long createHabit(String checkHistory) {
+        // 子表通过@MapsId共享主键，需要与Item在同一事务中保存
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Item item = new Item();
+            item.setUserId(50_000L);
+            item.setType("HABIT");
+            item.setTitle("habit");
+            item.setStatus("active");
+            item.setSortOrder(0);
+            item = itemRepository.save(item);
+            HabitItem habitItem = new HabitItem();
+            habitItem.setItem(item);
+            habitItem.setRepeatRule("daily");
+            habitItem.setCheckHistory(checkHistory);
+            return habitItemRepository.save(habitItem).getId();
+        });
+    }
+}
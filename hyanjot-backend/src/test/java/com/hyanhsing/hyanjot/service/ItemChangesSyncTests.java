@@ -0,0 +1,119 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.ItemChanges;
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ItemTombstone;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量同步只返回水位之后的变化：新增、修改（包括子表变化）和删除
+ */
+@SpringBootTest
+class ItemChangesSyncTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Test
+    void returnsOnlyChangesSinceWatermark() throws Exception {
+        long userId = 90_001L;
+        Item note = createNote(userId, "note");
+        Item doomed = createNote(userId, "doomed");
+        Item todo = createProgressTodo(userId);
+
+        ItemChanges initial = sync(userId, null, null);
+        assertEquals(Set.of(note.getId(), doomed.getId(), todo.getId()), ids(initial.getItems()));
+        assertTrue(initial.getDeleted().isEmpty());
+
+        // 没有变化时什么都不返回
+        ItemChanges empty = sync(userId, initial.getNextToken(), null);
+        assertTrue(empty.getItems().isEmpty());
+        assertTrue(empty.getDeleted().isEmpty());
+
+        todoService.incrementProgress(todo.getId());
+        itemService.deleteItem(doomed.getId());
+        Item added = createNote(userId, "added");
+
+        ItemChanges delta = sync(userId, empty.getNextToken(), null);
+        assertEquals(Set.of(todo.getId(), added.getId()), ids(delta.getItems()));
+        assertEquals(1, delta.getDeleted().size());
+        ItemTombstone tombstone = delta.getDeleted().get(0);
+        assertEquals(doomed.getId(), tombstone.getItemId());
+        assertEquals(1, delta.getItems().stream()
+                .filter(item -> item.getId().equals(todo.getId()))
+                .findFirst().orElseThrow()
+                .getTodoItem().getProgressCurrent());
+        assertFalse(delta.isReset());
+    }
+
+    @Test
+    void pagesThroughChangesWithoutGapsOrDuplicates() throws Exception {
+        long userId = 90_002L;
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(createNote(userId, "note-" + i).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String token = null;
+        ItemChanges page;
+        do {
+            page = sync(userId, token, 2);
+            seen.addAll(page.getItems().stream().map(Item::getId).toList());
+            token = page.getNextToken();
+        } while (page.isHasMore());
+        assertEquals(created, seen);
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.findChanges(90_003L, "not-a-token", null, false));
+    }
+
+    private ItemChanges sync(long userId, String since, Integer size) throws InterruptedException {
+        // 上界精确到毫秒，等写入的时间戳落到上界之前
+        Thread.sleep(5);
+        return itemService.findChanges(userId, since, size, false);
+    }
+
+    private Set<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toSet());
+    }
+
+    private Item createNote(long userId, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+
+    private Item createProgressTodo(long userId) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle("todo");
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        dto.setProgressMode(true);
+        dto.setProgressTotal(5);
+        return todoService.createTodo(dto);
+    }
+}
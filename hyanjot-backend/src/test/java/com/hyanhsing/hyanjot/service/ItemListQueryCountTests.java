@@ -0,0 +1,163 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.CursorPage;
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.HabitItem;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ReminderItem;
+import com.hyanhsing.hyanjot.repository.HabitItemRepository;
+import com.hyanhsing.hyanjot.repository.ReminderItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 列表接口的SQL条数：不管列表里有多少行、是什么类型，都只能发一条查询
+ * 防止子表关联重新引入3N+1查询
+ */
+@SpringBootTest
+class ItemListQueryCountTests {
+
+    private static final AtomicLong USER_IDS = new AtomicLong(10_000);
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private HabitItemRepository habitItemRepository;
+
+    @Autowired
+    private ReminderItemRepository reminderItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = USER_IDS.incrementAndGet();
+        // 子表通过@MapsId共享主键，需要与Item在同一事务中保存
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                createTodo("todo-" + i);
+                createHabit("habit-" + i);
+                createReminder("reminder-" + i);
+            }
+        });
+    }
+
+    @Test
+    void listByUserIdIssuesSingleStatement() {
+        Statistics stats = statistics();
+        List<Item> items = itemService.findByUserId(userId);
+        assertEquals(9, items.size());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void listByTypeAndStatusIssueSingleStatement() {
+        Statistics stats = statistics();
+        itemService.findByUserIdAndType(userId, "HABIT");
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        itemService.findByUserIdAndStatus(userId, "active");
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorPageIssuesSingleStatement() {
+        Statistics stats = statistics();
+        CursorPage<Item> first = itemService.findPageByUserId(userId, null, 5);
+        assertEquals(5, first.getItems().size());
+        assertEquals(1, stats.getPrepareStatementCount());
+
+        stats.clear();
+        CursorPage<Item> second = itemService.findPageByUserId(userId, first.getNextCursor(), 5);
+        assertEquals(4, second.getItems().size());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void detailPageIssuesOneStatementPerSubtypeTable() {
+        Statistics stats = statistics();
+        CursorPage<Item> page = itemService.findPageByUserIdWithDetails(userId, null, 50, true);
+        assertEquals(9, page.getItems().size());
+        // 1条主表 + 每种子表1条IN查询 + 子任务表1条IN查询
+        assertEquals(5, stats.getPrepareStatementCount());
+        assertTrue(page.getItems().stream().allMatch(item ->
+                item.getTodoItem() != null || item.getHabitItem() != null || item.getReminderItem() != null));
+
+        List<Long> ids = page.getItems().stream().map(Item::getId).toList();
+        stats.clear();
+        List<Item> items = itemService.findByIdsWithDetails(ids, true);
+        assertEquals(ids, items.stream().map(Item::getId).toList());
+        assertEquals(5, stats.getPrepareStatementCount());
+
+        // 只要计数时不查子任务表
+        stats.clear();
+        itemService.findByIdsWithDetails(ids, false);
+        assertEquals(4, stats.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+
+    private void createTodo(String title) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle(title);
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        todoService.createTodo(dto);
+    }
+
+    private void createHabit(String title) {
+        Item item = newItem("HABIT", title);
+        HabitItem habitItem = new HabitItem();
+        habitItem.setItem(item);
+        habitItem.setRepeatRule("daily");
+        habitItemRepository.save(habitItem);
+    }
+
+    private void createReminder(String title) {
+        Item item = newItem("REMINDER", title);
+        ReminderItem reminderItem = new ReminderItem();
+        reminderItem.setItem(item);
+        reminderItem.setRemindTime(LocalDateTime.now().plusHours(1));
+        reminderItemRepository.save(reminderItem);
+    }
+
+    private Item newItem(String type, String title) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType(type);
+        item.setTitle(title);
+        return itemService.createItem(item);
+    }
+}
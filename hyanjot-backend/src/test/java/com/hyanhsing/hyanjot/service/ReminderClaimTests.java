@@ -0,0 +1,163 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.ReminderItem;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.ReminderItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多个节点共用一个数据库并发认领提醒：不重复、不丢失，宕机节点的租约过期后被接管
+ */
+@SpringBootTest
+class ReminderClaimTests {
+
+    @Autowired
+    private ReminderClaimService reminderClaimService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ReminderItemRepository reminderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void nodesSplitDueRemindersWithoutDuplicatesOrLosses() throws Exception {
+        Set<Long> ids = createDueReminders(40_001L, 300);
+        Map<Long, AtomicInteger> fired = new ConcurrentHashMap<>();
+
+        int nodes = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(nodes);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int n = 0; n < nodes; n++) {
+            String nodeId = "node-" + n;
+            results.add(pool.submit(() -> runNode(nodeId, fired)));
+        }
+        int claimedTotal = 0;
+        for (Future<Integer> result : results) {
+            claimedTotal += result.get();
+        }
+        pool.shutdown();
+
+        for (Long id : ids) {
+            AtomicInteger count = fired.get(id);
+            assertTrue(count != null, "提醒丢失: " + id);
+            assertEquals(1, count.get(), "提醒重复触发: " + id);
+        }
+        assertTrue(claimedTotal >= ids.size());
+        assertTrue(reminderItemRepository.findAllById(ids).stream().allMatch(ReminderItem::getNotified));
+    }
+
+    @Test
+    void expiredLeaseOfCrashedNodeIsReclaimed() {
+        Set<Long> ids = createDueReminders(40_002L, 5);
+        List<ReminderItem> claimed = claimOwn("crashed-node", ids);
+        assertEquals(ids.size(), claimed.size());
+
+        // 租约未过期时其他节点拿不到
+        assertTrue(claimOwn("healthy-node", ids).isEmpty());
+
+        // 模拟宕机：租约过期且从未标记
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                reminderItemRepository.lease(ids, "crashed-node", LocalDateTime.now().minusSeconds(1)));
+
+        List<ReminderItem> reclaimed = claimOwn("healthy-node", ids);
+        assertEquals(ids.size(), reclaimed.size());
+        assertEquals(ids.size(), reminderClaimService.markNotified("healthy-node", ids));
+        // 宕机节点恢复后不能再标记别人的租约
+        assertEquals(0, reminderClaimService.markNotified("crashed-node", ids));
+    }
+
+    @Test
+    void recurringReminderAdvancesToNextOccurrenceInPlace() {
+        Set<Long> ids = createDueReminders(40_003L, 1);
+        Long id = ids.iterator().next();
+        ReminderItem reminder = reminderItemRepository.findById(id).orElseThrow();
+        LocalDateTime anchor = reminder.getRemindTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ReminderItem managed = reminderItemRepository.findById(id).orElseThrow();
+            managed.setRepeatType("daily");
+            managed.setAdvanceMinutes(10);
+        });
+
+        assertEquals(1, claimOwn("node-r", ids).size());
+        assertEquals(1, reminderClaimService.advanceRecurring("node-r", ids));
+
+        ReminderItem advanced = reminderItemRepository.findById(id).orElseThrow();
+        assertEquals(anchor.plusDays(1), advanced.getNextRemindTime());
+        assertEquals(anchor.plusDays(1).minusMinutes(10), advanced.getFireTime());
+        assertEquals(false, advanced.getNotified());
+        // 下一次还没到，现在认领不到
+        assertTrue(claimOwn("node-r", ids).isEmpty());
+    }
+
+    /**
+     * 一个节点：循环认领、触发、批量标记，直到没有可认领的提醒
+     */
+    private int runNode(String nodeId, Map<Long, AtomicInteger> fired) {
+        int claimedTotal = 0;
+        while (true) {
+            List<ReminderItem> claimed = reminderClaimService.claimDue(nodeId, LocalDateTime.now(), 20);
+            if (claimed.isEmpty()) {
+                return claimedTotal;
+            }
+            List<Long> claimedIds = new ArrayList<>();
+            for (ReminderItem reminder : claimed) {
+                fired.computeIfAbsent(reminder.getId(), k -> new AtomicInteger()).incrementAndGet();
+                claimedIds.add(reminder.getId());
+            }
+            claimedTotal += claimed.size();
+            reminderClaimService.markNotified(nodeId, claimedIds);
+        }
+    }
+
+    private List<ReminderItem> claimOwn(String nodeId, Set<Long> ids) {
+        return reminderClaimService.claimDue(nodeId, LocalDateTime.now(), 1000).stream()
+                .filter(reminder -> ids.contains(reminder.getId()))
+                .toList();
+    }
+
+    private Set<Long> createDueReminders(Long userId, int count) {
+        Set<Long> ids = new HashSet<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                Item item = new Item();
+                item.setUserId(userId);
+                item.setType("REMINDER");
+                item.setTitle("reminder-" + i);
+                item = itemRepository.save(item);
+
+                ReminderItem reminder = new ReminderItem();
+                reminder.setItem(item);
+                // 按秒取整（与MySQL DATETIME精度一致），二级缓存中的值与库中读出的相同
+                reminder.setRemindTime(LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS));
+                reminderItemRepository.save(reminder);
+                ids.add(item.getId());
+            }
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.TodoItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 硬件端进度按键：并发按键不丢更新，单次按键三条SQL
+ * （条件UPDATE、读回新状态、刷新item.updated_at；最后一条是增量同步需要的，
+ * MySQL的多表UPDATE能合并前后两条写，但H2不支持，这里保持三条）
+ */
+@SpringBootTest
+class TodoProgressConcurrencyTests {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        Long itemId = createProgressTodo(40);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(pool.submit(() -> todoService.incrementProgress(itemId)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(30, todoItemRepository.findById(itemId).orElseThrow().getProgressCurrent());
+        assertEquals("active", itemRepository.findById(itemId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void incrementIsCappedAndFlipsStatus() {
+        Long itemId = createProgressTodo(2);
+        todoService.incrementProgress(itemId);
+        TodoItem full = todoService.incrementProgress(itemId);
+        assertEquals(2, full.getProgressCurrent());
+        assertEquals("completed", itemRepository.findById(itemId).orElseThrow().getStatus());
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        assertEquals(2, todoService.incrementProgress(itemId).getProgressCurrent());
+        // UPDATE todo_item + SELECT + 只刷新item.updated_at（增量同步水位），不再整行保存item
+        assertEquals(3, stats.getPrepareStatementCount());
+
+        todoService.decrementProgress(itemId);
+        assertEquals("active", itemRepository.findById(itemId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void incrementWithoutTotalIsRejectedAndKeepsProgress() {
+        Long itemId = createProgressTodo(null);
+        todoService.decrementProgress(itemId);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> todoService.incrementProgress(itemId));
+        assertEquals("该TODO未设置总进度", e.getMessage());
+        assertEquals(0, todoItemRepository.findById(itemId).orElseThrow().getProgressCurrent());
+    }
+
+    private Long createProgressTodo(Integer total) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(20_000L);
+        dto.setTitle("progress");
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        dto.setProgressMode(true);
+        dto.setProgressTotal(total);
+        Item item = todoService.createTodo(dto);
+        return item.getId();
+    }
+}
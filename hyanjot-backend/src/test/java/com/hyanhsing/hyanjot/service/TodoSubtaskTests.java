@@ -0,0 +1,88 @@
+package com.hyanhsing.hyanjot.service;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.Subtask;
+import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.repository.TodoItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 子任务按行存储：ID稳定，按下标和按ID操作结果一致
+ */
+@SpringBootTest
+class TodoSubtaskTests {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Test
+    void subtaskIdsStayStableAcrossDeletes() {
+        Long itemId = createSubtaskTodo("a", "b", "c");
+        List<Subtask> before = todoService.getTodoWithSubtasks(itemId).getSubtasks();
+        Long idOfC = before.get(2).getId();
+
+        // 另一端删除了第一个子任务，按ID操作仍然指向原来的c
+        todoService.deleteSubtask(itemId, 0);
+        TodoItem after = todoService.toggleSubtaskById(itemId, idOfC);
+
+        assertEquals(List.of("b", "c"), after.getSubtasks().stream().map(Subtask::getText).toList());
+        assertEquals(idOfC, after.getSubtasks().get(1).getId());
+        assertTrue(after.getSubtasks().get(1).getCompleted());
+    }
+
+    @Test
+    void completionFollowsSubtasks() {
+        Long itemId = createSubtaskTodo("a", "b");
+        todoService.toggleSubtask(itemId, 0);
+        assertEquals("active", itemRepository.findById(itemId).orElseThrow().getStatus());
+
+        todoService.toggleSubtask(itemId, 1);
+        assertEquals("completed", itemRepository.findById(itemId).orElseThrow().getStatus());
+
+        TodoItem added = todoService.addSubtask(itemId, "c");
+        assertEquals(3, added.getSubtasks().size());
+        assertFalse(added.getSubtasks().get(2).getCompleted());
+        assertEquals("active", itemRepository.findById(itemId).orElseThrow().getStatus());
+
+        todoService.deleteSubtask(itemId, 0);
+        TodoItem stored = todoItemRepository.findById(itemId).orElseThrow();
+        assertEquals(1, stored.getSubtasksDone());
+        assertEquals(2, stored.getSubtasksTotal());
+    }
+
+    private Long createSubtaskTodo(String... texts) {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(30_000L);
+        dto.setTitle("subtasks");
+        dto.setDeadline(LocalDate.now().plusDays(1));
+        dto.setPriority("medium");
+        dto.setProgressMode(false);
+        List<TodoCreateDTO.SubtaskDTO> subtasks = new ArrayList<>();
+        for (String text : texts) {
+            TodoCreateDTO.SubtaskDTO subtask = new TodoCreateDTO.SubtaskDTO();
+            subtask.setText(text);
+            subtasks.add(subtask);
+        }
+        dto.setSubtasks(subtasks);
+        Item item = todoService.createTodo(dto);
+        return item.getId();
+    }
+}
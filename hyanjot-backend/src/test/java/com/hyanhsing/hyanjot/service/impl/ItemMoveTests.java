@@ -0,0 +1,134 @@
+package com.hyanhsing.hyanjot.service.impl;
+
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.repository.ItemRepository;
+import com.hyanhsing.hyanjot.service.ItemService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 拖动排序：通常只更新被移动的一行，空隙用完时重排
+ */
+@SpringBootTest
+class ItemMoveTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private SortOrderAllocator sortOrderAllocator;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void newItemsAreAppendedAndMoveUpdatesOneRow() {
+        long userId = 120_001L;
+        Item a = createNote(userId, "a", null);
+        Item b = createNote(userId, "b", null);
+        Item c = createNote(userId, "c", null);
+        assertEquals(List.of(SortOrderAllocator.GAP, 2 * SortOrderAllocator.GAP, 3 * SortOrderAllocator.GAP),
+                List.of(a.getSortOrder(), b.getSortOrder(), c.getSortOrder()));
+
+        Statistics stats = statistics();
+        itemService.moveItem(c.getId(), a.getId(), b.getId());
+        // 一次加锁查询 + 一条UPDATE
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(List.of("a", "c", "b"), titles(userId));
+
+        itemService.moveItem(b.getId(), null, a.getId());
+        assertEquals(List.of("b", "a", "c"), titles(userId));
+        itemService.moveItem(b.getId(), c.getId(), null);
+        assertEquals(List.of("a", "c", "b"), titles(userId));
+    }
+
+    @Test
+    void moveWithoutGapRebalancesFirst() {
+        long userId = 120_002L;
+        // 旧数据的排序值全是0
+        Item a = createNote(userId, "a", 0);
+        Item b = createNote(userId, "b", 0);
+        Item c = createNote(userId, "c", 0);
+
+        itemService.moveItem(c.getId(), a.getId(), b.getId());
+        assertEquals(List.of("a", "c", "b"), titles(userId));
+        assertEquals(SortOrderAllocator.GAP, itemService.findById(a.getId()).orElseThrow().getSortOrder());
+    }
+
+    @Test
+    void moveNextToNullSortOrderRebalancesFirst() {
+        long userId = 120_004L;
+        // 排序值为NULL的旧数据，不经过createItem分配
+        Item legacy = new Item();
+        legacy.setUserId(userId);
+        legacy.setType("NOTE");
+        legacy.setTitle("legacy");
+        legacy.setStatus("active");
+        legacy = itemRepository.save(legacy);
+        Item a = createNote(userId, "a", null);
+        Item b = createNote(userId, "b", null);
+
+        itemService.moveItem(b.getId(), legacy.getId(), a.getId());
+        assertEquals(List.of("legacy", "b", "a"), titles(userId));
+        itemService.moveItem(a.getId(), null, legacy.getId());
+        assertEquals(List.of("a", "legacy", "b"), titles(userId));
+    }
+
+    @Test
+    void shrinkingGapIsRebalancedInBackground() {
+        long userId = 120_003L;
+        Item a = createNote(userId, "a", null);
+        Item b = createNote(userId, "b", null);
+        createNote(userId, "c", null);
+
+        // 每次新建一项插到a和上一次插入的项之间，空隙每次减半
+        Item upper = b;
+        for (int i = 0; i < 8; i++) {
+            Item moving = createNote(userId, "m" + i, null);
+            upper = itemService.moveItem(moving.getId(), a.getId(), upper.getId());
+        }
+        assertTrue(sortOrderAllocator.isRebalancePending(userId));
+        List<String> before = titles(userId);
+
+        sortOrderAllocator.rebalancePending();
+        assertFalse(sortOrderAllocator.isRebalancePending(userId));
+        assertEquals(before, titles(userId));
+        List<Item> items = itemService.findByUserId(userId);
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals((i + 1) * SortOrderAllocator.GAP, items.get(i).getSortOrder());
+        }
+    }
+
+    private List<String> titles(long userId) {
+        return itemService.findPageByUserId(userId, null, 100).getItems().stream().map(Item::getTitle).toList();
+    }
+
+    private Item createNote(long userId, String title, Integer sortOrder) {
+        Item item = new Item();
+        item.setUserId(userId);
+        item.setType("NOTE");
+        item.setTitle(title);
+        item.setSortOrder(sortOrder);
+        return itemService.createItem(item);
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+        return stats;
+    }
+}
@@ -0,0 +1,73 @@
+package com.hyanhsing.hyanjot.benchmark;
+
+import com.hyanhsing.hyanjot.HyanjotApplication;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每个fork进程启动一次完整的Spring上下文，数据库换成H2内存库（MySQL兼容模式）
+ * 关掉提醒调度、搜索索引等后台任务，避免干扰测量
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    private static final AtomicLong NEXT_USER_ID = new AtomicLong(1_000_000L);
+
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void start() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("spring.jpa.properties.hibernate.generate_statistics", "false");
+        properties.put("hyanjot.reminder.enabled", "false");
+        properties.put("hyanjot.search.enabled", "false");
+        properties.put("hyanjot.gateway.enabled", "false");
+        properties.put("hyanjot.bulk.max-size", "100000");
+        properties.put("hyanjot.device.last-online-flush-ms", "3600000");
+        properties.put("hyanjot.item.rebalance-interval-ms", "3600000");
+        properties.put("logging.level.root", "WARN");
+        // 以命令行参数传入，优先级高于jar里application.yml的MySQL配置
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(HyanjotApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    @TearDown
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 每个基准用自己的用户，互不影响
+     */
+    public long newUserId() {
+        return NEXT_USER_ID.incrementAndGet();
+    }
+}
@@ -0,0 +1,38 @@
+package com.hyanhsing.hyanjot.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 运行基准，参数与JMH命令行相同（例如 "TodoBenchmark -p subtasks=50 -f 2"）
+ * 没有指定-rf/-rff时结果以JSON写入 results/jmh-yyyyMMdd-HHmmss.json，便于保存和对比历次结果
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("com\\.hyanhsing\\.hyanjot\\.benchmark\\..*");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            File dir = new File("results");
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IllegalStateException("无法创建结果目录: " + dir.getAbsolutePath());
+            }
+            String name = "jmh-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+            options.result(new File(dir, name).getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.hyanhsing.hyanjot.benchmark;
+
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import com.hyanhsing.hyanjot.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入rows条数据：批量接口（分块事务 + JDBC批量）对比逐条创建（每条一个事务）
+ *
+ * 每次调用写入一整批，用SingleShotTime测一批的总耗时；
+ * 每次调用换一个新用户，调用结束后删掉写入的数据，表的大小不随调用次数增长
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private BenchmarkContext context;
+
+    private ItemService itemService;
+
+    private TodoService todoService;
+
+    private long userId;
+
+    private List<Long> created;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        this.context = context;
+        itemService = context.bean(ItemService.class);
+        todoService = context.bean(TodoService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextUser() {
+        userId = context.newUserId();
+        created = new ArrayList<>(rows);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteCreated() {
+        itemService.deleteItems(created);
+    }
+
+    @Benchmark
+    public int createItemsBulk() {
+        created.addAll(itemService.createItems(notes()));
+        return created.size();
+    }
+
+    @Benchmark
+    public int createItemPerItem() {
+        for (Item item : notes()) {
+            created.add(itemService.createItem(item).getId());
+        }
+        return created.size();
+    }
+
+    @Benchmark
+    public int createTodosBulk() {
+        created.addAll(todoService.createTodos(todos()));
+        return created.size();
+    }
+
+    @Benchmark
+    public int createTodoPerItem() {
+        for (TodoCreateDTO dto : todos()) {
+            created.add(todoService.createTodo(dto).getId());
+        }
+        return created.size();
+    }
+
+    private List<Item> notes() {
+        List<Item> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Item item = new Item();
+            item.setUserId(userId);
+            item.setType("NOTE");
+            item.setTitle("导入备忘 " + i);
+            item.setContent("从旧版本导出的备忘内容");
+            items.add(item);
+        }
+        return items;
+    }
+
+    private List<TodoCreateDTO> todos() {
+        List<TodoCreateDTO> dtos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            TodoCreateDTO dto = new TodoCreateDTO();
+            dto.setUserId(userId);
+            dto.setTitle("导入清单 " + i);
+            dto.setDeadline(LocalDate.now().plusDays(7));
+            dto.setPriority("medium");
+            dto.setProgressMode(false);
+            TodoCreateDTO.SubtaskDTO subtask = new TodoCreateDTO.SubtaskDTO();
+            subtask.setText("整理资料并提交");
+            dto.setSubtasks(List.of(subtask));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
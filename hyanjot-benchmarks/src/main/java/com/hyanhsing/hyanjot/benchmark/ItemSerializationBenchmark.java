@@ -0,0 +1,76 @@
+package com.hyanhsing.hyanjot.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 备忘项列表的Jackson序列化（与接口使用同一个ObjectMapper），按行数分档
+ * serialize只测序列化；loadAndSerialize包含从H2按用户查询整张列表
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSerializationBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    private int rows;
+
+    private ItemService itemService;
+
+    private ObjectMapper objectMapper;
+
+    private long userId;
+
+    private List<Item> items;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        itemService = context.bean(ItemService.class);
+        objectMapper = context.bean(ObjectMapper.class);
+        userId = context.newUserId();
+        List<Item> toCreate = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Item item = new Item();
+            item.setUserId(userId);
+            item.setType("NOTE");
+            item.setTitle("笔记 " + i);
+            item.setContent("周末去超市买牛奶和面包，顺便取快递 #" + i);
+            toCreate.add(item);
+        }
+        itemService.createItems(toCreate);
+        items = itemService.findByUserId(userId);
+        if (items.size() != rows) {
+            throw new IllegalStateException("准备数据失败: " + items.size() + "/" + rows);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] loadAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemService.findByUserId(userId));
+    }
+}
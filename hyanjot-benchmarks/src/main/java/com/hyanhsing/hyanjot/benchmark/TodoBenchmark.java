@@ -0,0 +1,158 @@
+package com.hyanhsing.hyanjot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hyanhsing.hyanjot.controller.ItemController;
+import com.hyanhsing.hyanjot.dto.TodoCreateDTO;
+import com.hyanhsing.hyanjot.entity.Item;
+import com.hyanhsing.hyanjot.entity.TodoItem;
+import com.hyanhsing.hyanjot.service.ItemService;
+import com.hyanhsing.hyanjot.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TODO详情相关的热点路径，按子任务数量分档
+ *
+ * 子任务已经从JSON列拆到todo_subtask表，"子任务往返"测的是：
+ * 从库里读出TODO和全部子任务，再用接口同一个ObjectMapper序列化、反序列化一次
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int subtasks;
+
+    private TodoService todoService;
+
+    private ItemService itemService;
+
+    private ItemController itemController;
+
+    private ObjectMapper objectMapper;
+
+    private long userId;
+
+    /**
+     * 只读基准使用的TODO
+     */
+    private Long todoId;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        todoService = context.bean(TodoService.class);
+        itemService = context.bean(ItemService.class);
+        itemController = context.bean(ItemController.class);
+        objectMapper = context.bean(ObjectMapper.class);
+        userId = context.newUserId();
+        todoId = createTodo().getId();
+    }
+
+    @Benchmark
+    public TodoItem subtaskJsonRoundTrip() throws IOException {
+        TodoItem todo = todoService.getTodoWithSubtasks(todoId);
+        byte[] json = objectMapper.writeValueAsBytes(todo);
+        return objectMapper.readValue(json, TodoItem.class);
+    }
+
+    @Benchmark
+    public void checkAndUpdateCompletionStatus() {
+        todoService.checkAndUpdateCompletionStatus(todoId);
+    }
+
+    /**
+     * 控制器组装HashMap响应，再序列化成响应体
+     */
+    @Benchmark
+    public byte[] getItemByIdResponse() throws IOException {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+        Map<String, Object> body = itemController.getItemById(todoId, request).getBody();
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] addSubtaskResponse(AppendTarget target) throws IOException {
+        Map<String, Object> body = itemController.addSubtask(target.todoId, Map.of("text", "新增子任务")).getBody();
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    /**
+     * addSubtask基准使用的TODO：每次调用后删掉刚加的子任务，每次测的都是在subtasks个子任务后追加一个
+     * 单次调用是毫秒级的数据库写入，Level.Invocation的计时开销可以忽略
+     */
+    @State(Scope.Thread)
+    public static class AppendTarget {
+
+        private TodoService todoService;
+
+        private ItemService itemService;
+
+        private Long todoId;
+
+        /**
+         * 追加的子任务按显示顺序排在最后
+         */
+        private int appendedIndex;
+
+        @Setup
+        public void create(TodoBenchmark benchmark) {
+            todoService = benchmark.todoService;
+            itemService = benchmark.itemService;
+            todoId = benchmark.createTodo().getId();
+            appendedIndex = benchmark.subtasks;
+        }
+
+        @TearDown(Level.Invocation)
+        public void removeAppended() {
+            todoService.deleteSubtask(todoId, appendedIndex);
+        }
+
+        @TearDown
+        public void delete() {
+            itemService.deleteItem(todoId);
+        }
+    }
+
+    private Item createTodo() {
+        TodoCreateDTO dto = new TodoCreateDTO();
+        dto.setUserId(userId);
+        dto.setTitle("基准测试清单");
+        dto.setDeadline(LocalDate.now().plusDays(7));
+        dto.setPriority("medium");
+        dto.setProgressMode(false);
+        List<TodoCreateDTO.SubtaskDTO> list = new ArrayList<>(subtasks);
+        for (int i = 0; i < subtasks; i++) {
+            TodoCreateDTO.SubtaskDTO subtask = new TodoCreateDTO.SubtaskDTO();
+            subtask.setText("子任务 " + i + "：整理资料并提交");
+            // 一半已完成，完成状态检查不会短路
+            subtask.setCompleted(i % 2 == 0);
+            list.add(subtask);
+        }
+        dto.setSubtasks(list);
+        return todoService.createTodo(dto);
+    }
+}
@@ -81,6 +81,11 @@ export const updateItem = (id: number, item: Item): Promise<Item> => {
   return request.put(`/api/item/${id}`, item)
 }
 
+// 拖动排序：移到 after 和 before 两个备忘项之间（只改被移动的一项）
+export const moveItem = (id: number, after?: number, before?: number): Promise<Item> => {
+  return request.put(`/api/item/${id}/move`, null, { params: { after, before } })
+}
+
 // 切换完成状态
 export const toggleItemStatus = (id: number): Promise<Item> => {
   return request.put(`/api/item/${id}/toggle`)
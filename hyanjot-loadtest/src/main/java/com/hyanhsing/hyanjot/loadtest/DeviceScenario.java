@@ -0,0 +1,71 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 硬件设备：开环，按固定间隔上报，不等上一次返回
+ * 每次上报先认证token，认证成功后进度+1或切换一个子任务（3:2）
+ * 延迟从计划发送时间算起，调度线程或连接被拖慢时排队时间也计入，不会因为后端变慢而少发请求
+ */
+public class DeviceScenario implements Runnable {
+
+    private final HttpDriver driver;
+
+    private final String token;
+
+    private final long progressTodoId;
+
+    private final long subtaskTodoId;
+
+    private final int subtaskCount;
+
+    private final long intervalNanos;
+
+    private long nextTickNanos;
+
+    public DeviceScenario(HttpDriver driver, String token, long progressTodoId, long subtaskTodoId,
+                          int subtaskCount, long intervalMs) {
+        this.driver = driver;
+        this.token = token;
+        this.progressTodoId = progressTodoId;
+        this.subtaskTodoId = subtaskTodoId;
+        this.subtaskCount = subtaskCount;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    }
+
+    /**
+     * 首次上报随机错开，避免所有设备同一时刻发送
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler) {
+        long initialDelay = ThreadLocalRandom.current().nextLong(intervalNanos);
+        nextTickNanos = System.nanoTime() + initialDelay;
+        return scheduler.scheduleAtFixedRate(this, initialDelay, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void run() {
+        // scheduleAtFixedRate按计划时间补发，这里同样按计划时间推进，而不是取当前时间
+        long intended = nextTickNanos;
+        nextTickNanos += intervalNanos;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean increment = random.nextInt(5) < 3;
+        int index = random.nextInt(subtaskCount);
+        driver.sendAsync("GET /api/device/auth/{token}", "GET", "/api/device/auth/" + token, null, intended)
+                .thenAccept(authenticated -> {
+                    if (!authenticated) {
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    if (increment) {
+                        driver.sendAsync("PUT /api/item/{id}/progress/increment", "PUT",
+                                "/api/item/" + progressTodoId + "/progress/increment", null, start);
+                    } else {
+                        driver.sendAsync("PUT /api/item/{id}/subtask/{index}/toggle", "PUT",
+                                "/api/item/" + subtaskTodoId + "/subtask/" + index + "/toggle", null, start);
+                    }
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import com.hyanhsing.hyanjot.HyanjotApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在本进程启动后端：随机端口，数据库换成H2内存库（MySQL兼容模式）
+ * 提醒调度、搜索索引和TCP网关关掉，其余配置（缓存、批量刷新等）保持默认，尽量贴近线上行为
+ */
+public class EmbeddedBackend implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private final String baseUrl;
+
+    public EmbeddedBackend() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("hyanjot.reminder.enabled", "false");
+        properties.put("hyanjot.search.enabled", "false");
+        properties.put("hyanjot.gateway.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        // 以命令行参数传入，优先级高于jar里application.yml的MySQL配置
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(HyanjotApplication.class).run(args);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
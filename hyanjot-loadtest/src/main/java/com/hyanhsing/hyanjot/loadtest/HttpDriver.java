@@ -0,0 +1,128 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 发请求并记录到LoadStats，非2xx和网络异常都算失败
+ * endpoint是报告里的接口名，同一接口不同ID的请求归到一行
+ */
+public class HttpDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final LoadStats stats;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public HttpDriver(String baseUrl, LoadStats stats) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    /**
+     * 同步请求，失败返回null
+     */
+    public JsonNode send(String endpoint, String method, String path, Object body) {
+        HttpRequest request = build(method, path, body);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            boolean success = isSuccess(response);
+            stats.record(endpoint, System.nanoTime() - start, success);
+            return success ? parse(response.body()) : null;
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 准备数据用的同步请求，失败直接抛异常终止压测
+     */
+    public JsonNode sendRequired(String endpoint, String method, String path, Object body) {
+        JsonNode result = send(endpoint, method, path, body);
+        if (result == null) {
+            throw new IllegalStateException("准备数据失败: " + method + " " + path);
+        }
+        return result;
+    }
+
+    /**
+     * 异步请求，延迟从intendedStartNanos算起：发送线程被拖慢时，排队的时间也计入延迟，避免coordinated omission
+     */
+    public CompletableFuture<Boolean> sendAsync(String endpoint, String method, String path, Object body,
+                                                long intendedStartNanos) {
+        HttpRequest request = build(method, path, body);
+        inFlight.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean success = error == null && isSuccess(response);
+                    stats.record(endpoint, System.nanoTime() - intendedStartNanos, success);
+                    inFlight.decrementAndGet();
+                    return success;
+                });
+    }
+
+    /**
+     * 等待已发出的异步请求全部返回，超时返回false
+     * 设备的后续请求在前一个请求返回后才发出，中间计数会短暂为0，所以要连续两次为0才算结束
+     */
+    public boolean awaitInFlight(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleChecks = 0;
+        while (idleChecks < 2) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            idleChecks = inFlight.get() == 0 ? idleChecks + 1 : 0;
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return true;
+    }
+
+    private HttpRequest build(String method, String path, Object body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("请求体序列化失败", e);
+        }
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private JsonNode parse(byte[] body) throws IOException {
+        return body.length == 0 ? objectMapper.nullNode() : objectMapper.readTree(body);
+    }
+}
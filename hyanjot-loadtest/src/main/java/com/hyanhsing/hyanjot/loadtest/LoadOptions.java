@@ -0,0 +1,119 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行格式 --key=value
+ *
+ * --target                 已启动的后端地址（如http://localhost:8080），不指定则在本进程启动后端（H2内存库）
+ * --duration / --warmup    测量时长、预热时长（预热期间的数据不计入报告），支持 90s / 2m
+ * --web-users              网页用户数（闭环：请求返回后等待think-time再发下一个）
+ * --think-time-ms          网页用户两次请求之间的间隔
+ * --devices                硬件设备数（开环：每台设备按固定间隔发送，不等前一次返回）
+ * --device-interval-ms     每台设备两次上报之间的间隔
+ * --items-per-user         每个网页用户预先创建的备忘项数
+ * --subtasks-per-todo      设备子任务清单的子任务数
+ */
+public class LoadOptions {
+
+    private String target;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int webUsers = 50;
+    private long thinkTimeMs = 200;
+    private int devices = 1000;
+    private long deviceIntervalMs = 5000;
+    private int itemsPerUser = 20;
+    private int subtasksPerTodo = 10;
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadOptions options = new LoadOptions();
+        options.target = values.remove("target");
+        if (values.containsKey("duration")) {
+            options.duration = parseDuration(values.remove("duration"));
+        }
+        if (values.containsKey("warmup")) {
+            options.warmup = parseDuration(values.remove("warmup"));
+        }
+        options.webUsers = intValue(values, "web-users", options.webUsers);
+        options.thinkTimeMs = intValue(values, "think-time-ms", (int) options.thinkTimeMs);
+        options.devices = intValue(values, "devices", options.devices);
+        options.deviceIntervalMs = intValue(values, "device-interval-ms", (int) options.deviceIntervalMs);
+        options.itemsPerUser = intValue(values, "items-per-user", options.itemsPerUser);
+        options.subtasksPerTodo = intValue(values, "subtasks-per-todo", options.subtasksPerTodo);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("未知参数: " + values.keySet());
+        }
+        if (options.deviceIntervalMs <= 0 || options.subtasksPerTodo <= 0) {
+            throw new IllegalArgumentException("device-interval-ms和subtasks-per-todo必须大于0");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.remove(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getWebUsers() {
+        return webUsers;
+    }
+
+    public long getThinkTimeMs() {
+        return thinkTimeMs;
+    }
+
+    public int getDevices() {
+        return devices;
+    }
+
+    public long getDeviceIntervalMs() {
+        return deviceIntervalMs;
+    }
+
+    public int getItemsPerUser() {
+        return itemsPerUser;
+    }
+
+    public int getSubtasksPerTodo() {
+        return subtasksPerTodo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("网页用户%d（间隔%dms）, 设备%d（间隔%dms）, 预热%ds, 测量%ds",
+                webUsers, thinkTimeMs, devices, deviceIntervalMs, warmup.toSeconds(), duration.toSeconds());
+    }
+}
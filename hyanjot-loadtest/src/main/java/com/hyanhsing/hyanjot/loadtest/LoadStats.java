@@ -0,0 +1,91 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口统计请求数、失败数和延迟分布（HdrHistogram，微秒，3位有效数字）
+ * 预热结束时reset，报告只包含测量阶段
+ */
+public class LoadStats {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次请求，endpoint是接口模板（如"GET /api/item/{id}"），不含具体ID
+     */
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.latency.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        stats.requests.increment();
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    public void reset() {
+        endpoints.values().forEach(EndpointStats::reset);
+    }
+
+    public long totalRequests() {
+        return endpoints.values().stream().mapToLong(stats -> stats.requests.sum()).sum();
+    }
+
+    public long totalErrors() {
+        return endpoints.values().stream().mapToLong(stats -> stats.errors.sum()).sum();
+    }
+
+    public void print(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        String header = String.format("%-44s %9s %9s %8s %9s %9s %9s %9s %9s",
+                "接口", "请求数", "req/s", "失败率", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        out.println(header);
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram histogram = stats.latency.copy();
+            long count = stats.requests.sum();
+            long failed = stats.errors.sum();
+            if (count == 0) {
+                continue;
+            }
+            all.add(histogram);
+            requests += count;
+            errors += failed;
+            out.println(row(entry.getKey(), count, failed, seconds, histogram));
+        }
+        out.println(row("合计", requests, errors, seconds, all));
+    }
+
+    private static String row(String name, long count, long failed, double seconds, Histogram histogram) {
+        return String.format("%-44s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, count, count / seconds, count == 0 ? 0.0 : 100.0 * failed / count,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static class EndpointStats {
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void reset() {
+            latency.reset();
+            requests.reset();
+            errors.reset();
+        }
+    }
+}
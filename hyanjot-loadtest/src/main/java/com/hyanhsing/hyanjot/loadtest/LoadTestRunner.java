@@ -0,0 +1,180 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 压测入口：准备数据 -> 预热 -> 测量 -> 打印各接口的吞吐、失败率和延迟分位数
+ */
+public class LoadTestRunner {
+
+    private static final int SETUP_THREADS = 8;
+
+    private static final int DEVICES_PER_OWNER = 10;
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        EmbeddedBackend backend = options.getTarget() == null ? new EmbeddedBackend() : null;
+        try {
+            String baseUrl = backend != null ? backend.getBaseUrl() : options.getTarget();
+            System.out.println("压测目标: " + baseUrl + "，" + options);
+            run(options, baseUrl);
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadOptions options, String baseUrl) throws Exception {
+        LoadStats stats = new LoadStats();
+        HttpDriver driver = new HttpDriver(baseUrl, stats);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        long setupStart = System.nanoTime();
+        List<WebUserScenario> webUsers = prepareWebUsers(driver, running, options);
+        List<DeviceScenario> devices = prepareDevices(driver, options);
+        System.out.printf("准备数据完成: %d个网页用户, %d台设备, 耗时%.1fs%n",
+                webUsers.size(), devices.size(), (System.nanoTime() - setupStart) / 1e9);
+        stats.reset();
+
+        ExecutorService webExecutor = Executors.newFixedThreadPool(Math.max(1, webUsers.size()));
+        ScheduledExecutorService deviceScheduler = Executors.newScheduledThreadPool(2);
+        webUsers.forEach(webExecutor::submit);
+        List<ScheduledFuture<?>> deviceTasks = new ArrayList<>();
+        for (DeviceScenario device : devices) {
+            deviceTasks.add(device.schedule(deviceScheduler));
+        }
+
+        TimeUnit.MILLISECONDS.sleep(options.getWarmup().toMillis());
+        stats.reset();
+        long measureStart = System.nanoTime();
+        TimeUnit.MILLISECONDS.sleep(options.getDuration().toMillis());
+        long elapsed = System.nanoTime() - measureStart;
+
+        running.set(false);
+        deviceTasks.forEach(task -> task.cancel(false));
+        deviceScheduler.shutdown();
+        webExecutor.shutdown();
+        // 已发出的请求继续计入，等它们返回后再出报告
+        webExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        deviceScheduler.awaitTermination(30, TimeUnit.SECONDS);
+        if (!driver.awaitInFlight(30, TimeUnit.SECONDS)) {
+            System.out.println("警告: 30秒内仍有请求未返回");
+        }
+        System.out.println();
+        stats.print(System.out, elapsed);
+    }
+
+    private static List<WebUserScenario> prepareWebUsers(HttpDriver driver, AtomicBoolean running,
+                                                         LoadOptions options) throws Exception {
+        List<Callable<WebUserScenario>> tasks = new ArrayList<>();
+        for (int i = 0; i < options.getWebUsers(); i++) {
+            tasks.add(() -> {
+                long userId = register(driver, "web");
+                List<Long> itemIds = new ArrayList<>();
+                for (int j = 0; j < Math.max(1, options.getItemsPerUser()); j++) {
+                    JsonNode todo = driver.sendRequired("POST /api/item/todo", "POST", "/api/item/todo",
+                            WebUserScenario.newTodo(userId, ThreadLocalRandom.current()));
+                    itemIds.add(todo.get("id").asLong());
+                }
+                return new WebUserScenario(driver, running, options.getThinkTimeMs(), userId, itemIds);
+            });
+        }
+        return invokeAll(tasks);
+    }
+
+    private static List<DeviceScenario> prepareDevices(HttpDriver driver, LoadOptions options) throws Exception {
+        int owners = (options.getDevices() + DEVICES_PER_OWNER - 1) / DEVICES_PER_OWNER;
+        List<Callable<List<DeviceScenario>>> tasks = new ArrayList<>();
+        for (int i = 0; i < owners; i++) {
+            int deviceCount = Math.min(DEVICES_PER_OWNER, options.getDevices() - i * DEVICES_PER_OWNER);
+            tasks.add(() -> {
+                long userId = register(driver, "device");
+                List<DeviceScenario> devices = new ArrayList<>();
+                for (int j = 0; j < deviceCount; j++) {
+                    devices.add(prepareDevice(driver, options, userId));
+                }
+                return devices;
+            });
+        }
+        List<DeviceScenario> devices = new ArrayList<>();
+        invokeAll(tasks).forEach(devices::addAll);
+        return devices;
+    }
+
+    /**
+     * 每台设备一个进度模式TODO（总数足够大，压测期间不会加满）和一个子任务模式TODO
+     */
+    private static DeviceScenario prepareDevice(HttpDriver driver, LoadOptions options, long userId) {
+        String token = "load-" + System.nanoTime() + "-" + ThreadLocalRandom.current().nextInt(1_000_000);
+        Map<String, Object> device = new HashMap<>();
+        device.put("userId", userId);
+        device.put("deviceName", "压测设备");
+        device.put("deviceToken", token);
+        device.put("macAddress", "AA:BB:CC:DD:EE:FF");
+        driver.sendRequired("POST /api/device/register", "POST", "/api/device/register", device);
+
+        Map<String, Object> progressTodo = deviceTodo(userId, "进度");
+        progressTodo.put("progressMode", true);
+        progressTodo.put("progressTotal", 1_000_000_000);
+        long progressTodoId = driver.sendRequired("POST /api/item/todo", "POST", "/api/item/todo", progressTodo)
+                .get("id").asLong();
+
+        Map<String, Object> subtaskTodo = deviceTodo(userId, "子任务");
+        subtaskTodo.put("progressMode", false);
+        List<Map<String, Object>> subtasks = new ArrayList<>();
+        for (int i = 0; i < options.getSubtasksPerTodo(); i++) {
+            subtasks.add(Map.of("text", "子任务" + (i + 1), "completed", false));
+        }
+        subtaskTodo.put("subtasks", subtasks);
+        long subtaskTodoId = driver.sendRequired("POST /api/item/todo", "POST", "/api/item/todo", subtaskTodo)
+                .get("id").asLong();
+
+        return new DeviceScenario(driver, token, progressTodoId, subtaskTodoId,
+                options.getSubtasksPerTodo(), options.getDeviceIntervalMs());
+    }
+
+    private static Map<String, Object> deviceTodo(long userId, String title) {
+        Map<String, Object> todo = new HashMap<>();
+        todo.put("userId", userId);
+        todo.put("title", title);
+        todo.put("deadline", LocalDate.now().plusDays(30).toString());
+        todo.put("priority", "medium");
+        return todo;
+    }
+
+    private static long register(HttpDriver driver, String prefix) {
+        JsonNode response = driver.sendRequired("POST /api/user/register", "POST", "/api/user/register",
+                WebUserScenario.newUser(prefix));
+        return response.get("data").get("id").asLong();
+    }
+
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SETUP_THREADS);
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.hyanhsing.hyanjot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 网页用户：闭环，发一个请求、等返回、思考think-time后再发下一个
+ * 操作比例按前端的使用习惯估计，读多写少，对应api-test.http里的各个调用
+ */
+public class WebUserScenario implements Runnable {
+
+    private static final AtomicLong NEXT_USERNAME = new AtomicLong();
+
+    private final HttpDriver driver;
+
+    private final AtomicBoolean running;
+
+    private final long thinkTimeMs;
+
+    private final long userId;
+
+    private final List<Long> itemIds;
+
+    public WebUserScenario(HttpDriver driver, AtomicBoolean running, long thinkTimeMs, long userId, List<Long> itemIds) {
+        this.driver = driver;
+        this.running = running;
+        this.thinkTimeMs = thinkTimeMs;
+        this.userId = userId;
+        this.itemIds = new ArrayList<>(itemIds);
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
+            int roll = random.nextInt(100);
+            if (roll < 40) {
+                driver.send("GET /api/item/user/{userId}", "GET", "/api/item/user/" + userId, null);
+            } else if (roll < 48) {
+                driver.send("GET /api/item/user/{userId}/page", "GET", "/api/item/user/" + userId + "/page?size=20", null);
+            } else if (roll < 68) {
+                driver.send("GET /api/item/{id}", "GET", "/api/item/" + randomItem(random), null);
+            } else if (roll < 83) {
+                driver.send("PUT /api/item/{id}/toggle", "PUT", "/api/item/" + randomItem(random) + "/toggle", null);
+            } else if (roll < 93) {
+                JsonNode created = driver.send("POST /api/item/todo", "POST", "/api/item/todo", newTodo(userId, random));
+                if (created != null && created.hasNonNull("id")) {
+                    itemIds.add(created.get("id").asLong());
+                }
+            } else if (roll < 98) {
+                driver.send("POST /api/item", "POST", "/api/item", newHabit(userId));
+            } else if (roll < 99) {
+                driver.send("GET /api/user/list", "GET", "/api/user/list", null);
+            } else {
+                driver.send("POST /api/user/register", "POST", "/api/user/register", newUser("web"));
+            }
+            if (thinkTimeMs > 0) {
+                try {
+                    Thread.sleep(thinkTimeMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private long randomItem(ThreadLocalRandom random) {
+        return itemIds.get(random.nextInt(itemIds.size()));
+    }
+
+    static Map<String, Object> newUser(String prefix) {
+        String username = prefix + "-" + System.nanoTime() + "-" + NEXT_USERNAME.incrementAndGet();
+        return Map.of("username", username, "password", "123456", "nickname", "压测用户");
+    }
+
+    static Map<String, Object> newTodo(long userId, ThreadLocalRandom random) {
+        return Map.of(
+                "userId", userId,
+                "title", "完成作业",
+                "content", "数学作业第3章",
+                "deadline", LocalDate.now().plusDays(random.nextInt(1, 30)).toString(),
+                "priority", random.nextBoolean() ? "high" : "medium");
+    }
+
+    static Map<String, Object> newHabit(long userId) {
+        return Map.of(
+                "userId", userId,
+                "type", "HABIT",
+                "title", "每天喝8杯水",
+                "config", "{\"repeat_rule\":\"daily\",\"streak_days\":0}");
+    }
+}